@@ -2,6 +2,7 @@
 
 import com.imperionite.cp2a.securities.JwtAuthenticationFilter;
 import com.imperionite.cp2a.services.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -58,7 +59,7 @@ public CorsConfigurationSource corsConfigurationSource() {
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
 
         // Expose Authorization header to frontend (useful for JWT tokens)
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Next-Cursor"));
 
         // Allow credentials (cookies, authorization headers)
         configuration.setAllowCredentials(true);
@@ -83,6 +84,9 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Excepti
                         sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
+                                // Streamed responses finish on an async dispatch; the request itself was
+                                // already authorized and the JWT filter does not run again for it
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/api/auth/register").hasRole("ADMIN")
                                 .requestMatchers("/api/auth/**").permitAll()
                                 .anyRequest().authenticated()
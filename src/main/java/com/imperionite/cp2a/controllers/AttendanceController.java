@@ -9,13 +9,24 @@
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -32,12 +43,38 @@
 public class AttendanceController {
     private static final Logger logger = LoggerFactory.getLogger(AttendanceController.class); // Logger
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private EmployeeService employeeService;
 
     @Autowired
     private AttendanceService attendanceService;
 
+    @Autowired
+    private AttendanceImportService attendanceImportService;
+
+    @Autowired
+    private CutoffCalendar cutoffCalendar;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
+    @Autowired
+    private AttendanceColumnStore attendanceColumnStore;
+
+    @Autowired
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+
+    @Autowired
+    private AttendanceAnomalyDetector attendanceAnomalyDetector;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Creates a new attendance record for the logged-in employee.
      * Accessible by all authenticated employees.
@@ -45,7 +82,8 @@ public class AttendanceController {
      * @param attendanceRequest The request body containing the date, log-in, and
      * log-out times.
      * @param userDetails       The currently authenticated user's details.
-     * @return A ResponseEntity with the appropriate HTTP status code and message.
+     * @return A ResponseEntity with the appropriate HTTP status code and message:
+     * 201 when saved, or 202 when queued by the write-behind buffer.
      */
     @PostMapping
     public ResponseEntity<?> createAttendance(@RequestBody AttendanceRequest attendanceRequest,
@@ -58,9 +96,8 @@ public ResponseEntity<?> createAttendance(@RequestBody AttendanceRequest attenda
         String loggedInEmployeeNumber = userDetails.getUsername(); // Get employee number from logged-in user
 
         try {
-            // 1. Find the employee (using the logged-in user's employee number)
-            Optional<Employee> employee = employeeService.getEmployeeByEmployeeNumber(loggedInEmployeeNumber); // Use
-            // EmployeeService
+            // 1. Find the employee (using the logged-in user's employee number), from the employee cache
+            Optional<EmployeePayrollInfoDTO> employee = employeeService.getEmployeePayrollInfo(loggedInEmployeeNumber);
 
             if (employee.isEmpty()) {
                 logger.error("Employee not found for employee number: {}", loggedInEmployeeNumber); // Log the error!
@@ -85,6 +122,10 @@ public ResponseEntity<?> createAttendance(@RequestBody AttendanceRequest attenda
             attendance.setLogIn(logIn);
             attendance.setLogOut(logOut);
 
+            // Queued records are journaled and written in the next batch
+            if (attendanceService.enqueueAttendance(attendance)) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body("Attendance record accepted.");
+            }
             attendanceService.saveAttendance(attendance); // Use the service to save
 
             return ResponseEntity.status(HttpStatus.CREATED).body("Attendance record created.");
@@ -103,47 +144,72 @@ public ResponseEntity<?> createAttendance(@RequestBody AttendanceRequest attenda
     /**
      * Retrieves the available weekly cut-offs (start and end dates).
      * Accessible by all authenticated users (employees and admins).
+     * Served from memory with a strong ETag and the time attendance last changed
+     * as Last-Modified; a matching {@code If-None-Match} gets 304 Not Modified.
      *
      * @param userDetails The currently authenticated user's details.
+     * @param webRequest  The request, for the conditional headers.
      * @return A {@link ResponseEntity} containing a list of {@link WeeklyCutoffDTO}
      * objects, each representing a week with its start and end dates.
      * Returns a 401 Unauthorized if the user is not logged in.
      */
     @GetMapping("/weekly-cutoffs")
-    public ResponseEntity<List<WeeklyCutoffDTO>> getWeeklyCutoffs(@AuthenticationPrincipal UserDetails userDetails) { // Use
-                                                                                                                      // WeeklyCutoffDTO
+    public ResponseEntity<List<WeeklyCutoffDTO>> getWeeklyCutoffs(@AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // Check if user is logged in
         }
-        List<WeeklyCutoffDTO> weeklyCutoffs = attendanceService.getWeeklyCutoffs();
-        return ResponseEntity.ok(weeklyCutoffs);
+        CutoffCalendar.Snapshot calendar = cutoffCalendar.getSnapshot();
+        long lastModified = dataVersionTracker.get(DataVersionTracker.Dataset.ATTENDANCE).getLastModified();
+        if (webRequest.checkNotModified(calendar.getWeeklyEtag(), lastModified)) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok()
+                .eTag(calendar.getWeeklyEtag())
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(calendar.getWeeklyCutoffs());
     }
 
     /**
      * Retrieves the available monthly cut-offs (YearMonth, start date, and end date).
      * Accessible by all authenticated users (employees and admins).
+     * Served from memory with a strong ETag and the time attendance last changed
+     * as Last-Modified; a matching {@code If-None-Match} gets 304 Not Modified.
      *
      * @param userDetails The currently authenticated user's details.
+     * @param webRequest  The request, for the conditional headers.
      * @return A {@link ResponseEntity} containing a list of {@link MonthlyCutoffDTO}
      * objects, each representing a month with its YearMonth, start date, and end dates.
      * Returns a 401 Unauthorized if the user is not logged in.
      */
     @GetMapping("/monthly-cutoffs")
-    public ResponseEntity<List<MonthlyCutoffDTO>> getMonthlyCutoffs(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<List<MonthlyCutoffDTO>> getMonthlyCutoffs(@AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        List<MonthlyCutoffDTO> monthlyCutoffs = attendanceService.getMonthlyCutoffs();
-        return ResponseEntity.ok(monthlyCutoffs);
+        CutoffCalendar.Snapshot calendar = cutoffCalendar.getSnapshot();
+        long lastModified = dataVersionTracker.get(DataVersionTracker.Dataset.ATTENDANCE).getLastModified();
+        if (webRequest.checkNotModified(calendar.getMonthlyEtag(), lastModified)) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok()
+                .eTag(calendar.getMonthlyEtag())
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(calendar.getMonthlyCutoffs());
     }
 
     /**
      * Retrieves attendance records for a specific employee within a date range.
-     * Accessible by employees themselves.
+     * Accessible by employees themselves. Tagged with the attendance data
+     * version; a matching {@code If-None-Match} gets 304 without a query.
      *
      * @param employeeNumber The employee number.
      * @param startDate      The start date of the range (inclusive).
      * @param endDate        The end date of the range (inclusive).
+     * @param webRequest     The request, for the conditional headers.
      * @return A list of Attendance objects in JSON format.
      */
     @GetMapping("/employee/{employeeNumber}")
@@ -153,32 +219,281 @@ public ResponseEntity<List<MonthlyCutoffDTO>> getMonthlyCutoffs(@AuthenticationP
     public ResponseEntity<List<Attendance>> getAttendanceByEmployeeAndDateRange(
             @PathVariable String employeeNumber,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest) {
+
+        DataVersion version = dataVersionTracker.get(DataVersionTracker.Dataset.ATTENDANCE);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null; // 304 Not Modified; the records are not queried
+        }
 
         logger.info("Retrieving attendance for employee {} between {} and {}", employeeNumber, startDate, endDate);
 
         List<Attendance> attendances = attendanceService.getAttendanceByEmployeeAndDateRange(employeeNumber, startDate,
                 endDate);
-        return ResponseEntity.ok(attendances);
+        return ResponseEntity.ok()
+                .eTag(version.getEtag())
+                .lastModified(version.getLastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(attendances);
     }
 
     /**
-     * Retrieves attendance records for all employees within a date range.
+     * Retrieves one page of attendance records for all employees within a date
+     * range, ordered by date and id. When more records follow, the
+     * {@code X-Next-Cursor} response header holds the cursor for the next page.
      * Accessible by administrators only.
      *
      * @param startDate The start date of the range (inclusive).
      * @param endDate   The end date of the range (inclusive).
-     * @return A list of Attendance objects in JSON format.
+     * @param cursor    The X-Next-Cursor of the previous page; omit for the first.
+     * @param limit     The page size (default 1000, at most 5000).
+     * @return A list of Attendance objects in JSON format or an error message.
      */
     @GetMapping("/admin")
     @PreAuthorize("hasRole('ADMIN')") // Only admins can access this
-    public ResponseEntity<List<Attendance>> getAttendanceByDateRange(
+    public ResponseEntity<?> getAttendanceByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+
+        try {
+            logger.info("Retrieving attendance between {} and {} (limit {})", startDate, endDate, limit);
+            AttendancePageDTO page = attendanceService.getAttendancePage(startDate, endDate, cursor, limit);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid attendance page request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+
+        } catch (Exception e) {
+            logger.error("Error retrieving attendance: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving attendance: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams every attendance record within a date range as NDJSON (one JSON
+     * object per line, ordered by date and id). Rows are read from a database
+     * cursor and written as they arrive, so memory use does not grow with the
+     * range. Accessible by administrators only.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @return The streamed records.
+     */
+    @GetMapping(value = "/admin/stream", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAttendanceByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        logger.info("Retrieving all attendance between {} and {}", startDate, endDate);
-        List<Attendance> attendances = attendanceService.getAttendanceByDateRange(startDate, endDate);
-        return ResponseEntity.ok(attendances);
+        logger.info("Streaming attendance between {} and {}", startDate, endDate);
+        StreamingResponseBody body = out -> {
+            try {
+                attendanceService.streamAttendanceByDateRange(startDate, endDate, attendance -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(attendance));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // client went away
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.valueOf("application/x-ndjson")).body(body);
+    }
+
+    /**
+     * Exports the attendance of a date range as a CSV download in the
+     * attendance_records.csv format, written to the response as rows are read
+     * from the database. Accessible by administrators only.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @return The streamed CSV.
+     */
+    @GetMapping("/admin/export.csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        logger.info("Exporting attendance between {} and {}", startDate, endDate);
+        StreamingResponseBody body = out -> exportService.writeAttendanceCsv(startDate, endDate, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("attendance_" + startDate + "_" + endDate + ".csv").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Bulk-imports attendance records from a streamed CSV ({@code text/csv}) or
+     * NDJSON ({@code application/x-ndjson}) request body in the
+     * attendance_records.csv format. Valid rows are saved in JDBC batches;
+     * invalid rows are skipped and listed in the report with their line number.
+     * Accessible by administrators only.
+     *
+     * @param contentType The request content type, selecting the format.
+     * @param body        The raw request body, read as a stream.
+     * @return A ResponseEntity with the import report or an error message.
+     */
+    @PostMapping(value = "/admin/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importAttendance(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+
+        try {
+            AttendanceImportResultDTO result = MediaType.parseMediaType(contentType)
+                    .isCompatibleWith(MediaType.valueOf("application/x-ndjson"))
+                            ? attendanceImportService.importNdjson(body)
+                            : attendanceImportService.importCsv(body);
+            return ResponseEntity.ok(result);
+
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Error reading attendance upload: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Could not read upload: " + e.getMessage());
+
+        } catch (Exception e) {
+            logger.error("Error importing attendance: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error importing attendance: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the worked and late minute totals of every employee within a date
+     * range, answered from the in-memory attendance column store. Accessible by
+     * administrators only. Tagged with the attendance data version; a matching
+     * {@code If-None-Match} gets 304 without recomputing the totals.
+     *
+     * @param startDate  The start date of the range (inclusive).
+     * @param endDate    The end date of the range (inclusive).
+     * @param webRequest The request, for the conditional headers.
+     * @return One summary per employee with attendance in the range, in JSON
+     * format.
+     */
+    @GetMapping("/admin/worked-hours")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AttendanceStatsDTO>> getWorkedHoursSummaries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest) {
+
+        DataVersion version = dataVersionTracker.get(DataVersionTracker.Dataset.ATTENDANCE);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null; // 304 Not Modified; the column store is not scanned
+        }
+
+        logger.info("Summarizing worked hours between {} and {}", startDate, endDate);
+        return ResponseEntity.ok()
+                .eTag(version.getEtag())
+                .lastModified(version.getLastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(attendanceColumnStore.getStats(startDate, endDate));
+    }
+
+    /**
+     * Retrieves the worked hours, lateness and presence of every employee within
+     * a date range, answered from the in-memory attendance column store without
+     * querying the database. Accessible by administrators only.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @return One entry per employee with attendance in the range, in JSON format.
+     */
+    @GetMapping("/admin/analytics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AttendanceStatsDTO>> getAttendanceStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        return ResponseEntity.ok(attendanceColumnStore.getStats(startDate, endDate));
+    }
+
+    /**
+     * Retrieves the workforce lateness and undertime report for a period: late
+     * and undertime minute totals, day counts and percentile distributions,
+     * overall and by employee, position and immediate supervisor. Accessible by
+     * administrators only.
+     *
+     * @param startDate The start date of the period (inclusive).
+     * @param endDate   The end date of the period (inclusive).
+     * @return A ResponseEntity with the report or an error message.
+     */
+    @GetMapping("/admin/lateness")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getLatenessReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        try {
+            return ResponseEntity.ok(attendanceAnalyticsService.getLatenessReport(startDate, endDate));
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid lateness report period: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+
+        } catch (Exception e) {
+            logger.error("Error building lateness report: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error building lateness report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scans the attendance of a date range for anomalies (equal times, log-out
+     * before log-in, impossible shifts, unknown employees) and streams them as
+     * NDJSON while the scan runs. Accessible by administrators only.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @return The streamed anomalies, one JSON object per line.
+     */
+    @GetMapping(value = "/admin/anomalies", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> scanAnomalies(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        logger.info("Scanning attendance anomalies between {} and {}", startDate, endDate);
+        StreamingResponseBody body = out -> {
+            try {
+                attendanceAnomalyDetector.scan(startDate, endDate, anomaly -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(anomaly));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // client went away
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.valueOf("application/x-ndjson")).body(body);
+    }
+
+    /**
+     * Retrieves the anomalies found in attendance records as they were saved or
+     * imported, oldest first. Accessible by administrators only.
+     *
+     * @return The most recent anomalies in JSON format.
+     */
+    @GetMapping("/admin/anomalies/recent")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AttendanceAnomalyDTO>> getRecentAnomalies() {
+        return ResponseEntity.ok(attendanceAnomalyDetector.getRecentAnomalies());
     }
 
     /**
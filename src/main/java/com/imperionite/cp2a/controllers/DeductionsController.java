@@ -11,6 +11,7 @@
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -19,7 +20,10 @@
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.imperionite.cp2a.dtos.Contributions;
+import com.imperionite.cp2a.services.DataVersion;
 import com.imperionite.cp2a.services.DeductionsService;
 
 @RestController
@@ -472,4 +476,35 @@ public ResponseEntity<?> calculateMonthlyWithholdingTax(
                     .body("Error calculating monthly withholding tax: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // --- CONTRIBUTION TABLES ---
+
+    /**
+     * Retrieves the SSS, PhilHealth and Pag-IBIG contribution tables in use.
+     * Accessible by all authenticated users. Served from memory with a strong
+     * ETag derived from the loaded file and the load time as Last-Modified; a
+     * matching {@code If-None-Match} gets 304 Not Modified.
+     *
+     * @param userDetails The currently authenticated user's details.
+     * @param webRequest  The request, for the conditional headers.
+     * @return A ResponseEntity containing the contribution tables in JSON format.
+     */
+    @GetMapping("/contributions")
+    public ResponseEntity<Contributions> getContributions(@AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        DataVersion version = deductionsService.getContributionsVersion();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok()
+                .eTag(version.getEtag())
+                .lastModified(version.getLastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(deductionsService.getContributions());
+    }
+}
@@ -2,35 +2,61 @@
 
 import com.imperionite.cp2a.entities.Employee;
 import com.imperionite.cp2a.entities.User;
+import com.imperionite.cp2a.services.DataVersion;
+import com.imperionite.cp2a.services.DataVersionTracker;
+import com.imperionite.cp2a.services.EmployeeCache;
+import com.imperionite.cp2a.services.EmployeeImportService;
 import com.imperionite.cp2a.services.EmployeeService;
 import com.imperionite.cp2a.services.UserService;
 
 import com.imperionite.cp2a.dtos.AdminEmployeeDTO;
 import com.imperionite.cp2a.dtos.EmployeeBasicInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeCacheStatsDTO;
+import com.imperionite.cp2a.dtos.EmployeeImportResultDTO;
+import com.imperionite.cp2a.dtos.EmployeePageDTO;
 import com.imperionite.cp2a.dtos.EmployeePartialDetailsDTO;
+import com.imperionite.cp2a.dtos.EmployeeSearchResultDTO;
+import com.imperionite.cp2a.dtos.ReportingNodeDTO;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeController.class);
+
     @Autowired
     private EmployeeService employeeService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
     @PostMapping
     public ResponseEntity<Employee> createEmployee(@RequestBody Employee employee,
             @AuthenticationPrincipal UserDetails userDetails) {
@@ -55,7 +81,8 @@ public ResponseEntity<Employee> createEmployee(@RequestBody Employee employee,
     }
 
     @GetMapping
-    public ResponseEntity<List<Employee>> getAllEmployees(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<List<Employee>> getAllEmployees(@AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -66,8 +93,16 @@ public ResponseEntity<List<Employee>> getAllEmployees(@AuthenticationPrincipal U
             User currentUser = optionalUser.get();
 
             if (currentUser.getIsAdmin()) {
+                DataVersion version = dataVersionTracker.get(DataVersionTracker.Dataset.EMPLOYEES);
+                if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+                    return null; // 304 Not Modified; the list is not queried
+                }
                 List<Employee> employees = employeeService.getAllEmployees();
-                return new ResponseEntity<>(employees, HttpStatus.OK);
+                return ResponseEntity.ok()
+                        .eTag(version.getEtag())
+                        .lastModified(version.getLastModified())
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(employees);
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
@@ -100,7 +135,7 @@ public ResponseEntity<?> getEmployeeById(@PathVariable Long id, @AuthenticationP
 
     @GetMapping("/admin")
     public ResponseEntity<List<AdminEmployeeDTO>> getAllEmployeesForAdmin(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails, WebRequest webRequest) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -111,17 +146,16 @@ public ResponseEntity<List<AdminEmployeeDTO>> getAllEmployeesForAdmin(
             User currentUser = optionalUser.get();
 
             if (currentUser.getIsAdmin()) {
-                List<Employee> employees = employeeService.getAllEmployees();
-                List<AdminEmployeeDTO> employeeDTOs = employees.stream()
-                        .map(employee -> new AdminEmployeeDTO(
-                                employee.getId(),
-                                employee.getEmployeeNumber(),
-                                employee.getLastName(),
-                                employee.getFirstName(),
-                                employee.getBirthday(),
-                                employee.getUser()))
-                        .collect(Collectors.toList());
-                return new ResponseEntity<>(employeeDTOs, HttpStatus.OK);
+                DataVersion version = dataVersionTracker.get(DataVersionTracker.Dataset.EMPLOYEES);
+                if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+                    return null; // 304 Not Modified; the list is not queried
+                }
+                List<AdminEmployeeDTO> employeeDTOs = employeeService.getAllAdminEmployees(); // Column projection
+                return ResponseEntity.ok()
+                        .eTag(version.getEtag())
+                        .lastModified(version.getLastModified())
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(employeeDTOs);
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
@@ -155,17 +189,17 @@ public ResponseEntity<Employee> getEmployeeByEmployeeNumber(@PathVariable String
 
     @GetMapping("/basic-info") // basic employee info list
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<EmployeeBasicInfoDTO>> getAllEmployeesBasicInfo() {
-        List<Employee> employees = employeeService.getAllEmployees(); // Get all employees
-        List<EmployeeBasicInfoDTO> employeeDTOs = employees.stream()
-                .map(employee -> new EmployeeBasicInfoDTO( // Map to the DTO
-                        employee.getId(),
-                        employee.getEmployeeNumber(),
-                        employee.getFirstName(),
-                        employee.getLastName(),
-                        employee.getBirthday()))
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(employeeDTOs, HttpStatus.OK);
+    public ResponseEntity<List<EmployeeBasicInfoDTO>> getAllEmployeesBasicInfo(WebRequest webRequest) {
+        DataVersion version = dataVersionTracker.get(DataVersionTracker.Dataset.EMPLOYEES);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null; // 304 Not Modified; the list is not queried
+        }
+        List<EmployeeBasicInfoDTO> employeeDTOs = employeeService.getAllEmployeeBasicInfo(); // No User join
+        return ResponseEntity.ok()
+                .eTag(version.getEtag())
+                .lastModified(version.getLastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(employeeDTOs);
     }
 
     @GetMapping("/basic-info/employeeNumber/{employeeNumber}") // retrieve basic info by employee umber
@@ -180,15 +214,9 @@ public ResponseEntity<EmployeeBasicInfoDTO> getBasicInfoByEmployeeNumber(
         Optional<User> optionalUser = userService.findByUsername(userDetails.getUsername());
 
         if (optionalUser.isPresent()) {
-            Optional<Employee> employee = employeeService.getEmployeeByEmployeeNumber(employeeNumber);
+            Optional<EmployeeBasicInfoDTO> employee = employeeService.getEmployeeBasicInfo(employeeNumber);
             if (employee.isPresent()) {
-                EmployeeBasicInfoDTO dto = new EmployeeBasicInfoDTO(
-                        employee.get().getId(),
-                        employee.get().getEmployeeNumber(),
-                        employee.get().getFirstName(),
-                        employee.get().getLastName(),
-                        employee.get().getBirthday());
-                return ResponseEntity.ok(dto);
+                return ResponseEntity.ok(employee.get());
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -225,7 +253,7 @@ public ResponseEntity<?> getMyDetails(@AuthenticationPrincipal UserDetails userD
 
     @GetMapping("/partial/details")
     public ResponseEntity<List<EmployeePartialDetailsDTO>> getAllEmployeePartialDetails(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails, WebRequest webRequest) {
 
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -237,8 +265,16 @@ public ResponseEntity<List<EmployeePartialDetailsDTO>> getAllEmployeePartialDeta
             User currentUser = optionalUser.get();
 
             if (currentUser.getIsAdmin()) {
+                DataVersion version = dataVersionTracker.get(DataVersionTracker.Dataset.EMPLOYEES);
+                if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+                    return null; // 304 Not Modified; the list is not queried
+                }
                 List<EmployeePartialDetailsDTO> details = employeeService.getAllEmployeePartialDetails();
-                return ResponseEntity.ok(details);
+                return ResponseEntity.ok()
+                        .eTag(version.getEtag())
+                        .lastModified(version.getLastModified())
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(details);
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
@@ -247,4 +283,94 @@ public ResponseEntity<List<EmployeePartialDetailsDTO>> getAllEmployeePartialDeta
         }
     }
 
-}
\ No newline at end of file
+    // Hit, miss and eviction counts of the employee cache
+    @GetMapping("/admin/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EmployeeCacheStatsDTO> getEmployeeCacheStats() {
+        return ResponseEntity.ok(employeeCache.getStats());
+    }
+
+    // One page of the employee list, filtered and sorted in the database (replaces fetching every employee)
+    @GetMapping("/admin/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> searchEmployees(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String position,
+            @RequestParam(required = false) String supervisor,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "employeeNumber") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            WebRequest webRequest) {
+        DataVersion version = dataVersionTracker.get(DataVersionTracker.Dataset.EMPLOYEES);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null; // 304 Not Modified; the page is not queried
+        }
+        try {
+            EmployeePageDTO result = employeeService.searchEmployees(status, position, supervisor, name, page, size,
+                    sort, direction);
+            return ResponseEntity.ok()
+                    .eTag(version.getEtag())
+                    .lastModified(version.getLastModified())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Typeahead search by partial employee number, name, SSS or TIN, ranked, from the in-memory index
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> searchEmployeesByText(@RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<EmployeeSearchResultDTO> results = employeeService.searchEmployeesByText(q, limit);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Reporting hierarchy, resolved from the immediate supervisor names and held in memory
+    @GetMapping("/employeeNumber/{employeeNumber}/direct-reports")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ReportingNodeDTO>> getDirectReports(@PathVariable String employeeNumber) {
+        return employeeService.getDirectReports(employeeNumber).map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/employeeNumber/{employeeNumber}/reports") // direct and indirect reports
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ReportingNodeDTO>> getAllReports(@PathVariable String employeeNumber) {
+        return employeeService.getAllReports(employeeNumber).map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/employeeNumber/{employeeNumber}/management-chain") // supervisors, nearest first
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ReportingNodeDTO>> getManagementChain(@PathVariable String employeeNumber) {
+        return employeeService.getManagementChain(employeeNumber).map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Bulk onboarding from a streamed CSV body in the employees_details.csv format; creates each
+    // employee's user with the default password. Returns a result for every row.
+    @PostMapping(value = "/admin/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importEmployees(InputStream body) {
+        try {
+            EmployeeImportResultDTO result = employeeImportService.importCsv(body);
+            return ResponseEntity.ok(result);
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Error reading employee upload: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Could not read upload: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error importing employees: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error importing employees: " + e.getMessage());
+        }
+    }
+
+}
@@ -5,13 +5,18 @@
 import java.time.LocalDate;
 import java.time.YearMonth; // Import YearMonth
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -20,7 +25,10 @@
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.imperionite.cp2a.dtos.PayrollEntryDTO;
+import com.imperionite.cp2a.dtos.TeamSummaryDTO;
 import com.imperionite.cp2a.services.*;
 
 @RestController
@@ -33,10 +41,13 @@ public class SalaryController {
     private SalaryService salaryService;
 
     @Autowired
-    private DeductionsService deductionsService;
+    private PayrollRunService payrollRunService;
 
     @Autowired
-    private AttendanceService attendanceService;
+    private ExportService exportService;
+
+    @Autowired
+    private TeamSummaryService teamSummaryService;
 
     // --- WEEKLY SALARY ENDPOINTS (EXISTING - paths changed) ---
 
@@ -112,44 +123,21 @@ public ResponseEntity<?> calculateNetWeeklySalary(
                 employeeNumber = userDetails.getUsername();
             }
 
-            // Retrieve salary details
-            BigDecimal grossWeeklySalary = salaryService.calculateGrossWeeklySalary(employeeNumber, startDate,
-                    endDate);
-
-            BigDecimal sssDeduction = deductionsService.calculateWeeklySssDeduction(employeeNumber, startDate, endDate);
-            BigDecimal philhealthDeduction = deductionsService.calculateWeeklyPhilHealthDeduction(employeeNumber,
-                    startDate, endDate);
-            BigDecimal pagibigDeduction = deductionsService.calculateWeeklyPagIbigDeduction(employeeNumber, startDate,
-                    endDate);
-            BigDecimal withholdingTax = deductionsService.calculateWeeklyWithholdingTax(employeeNumber, startDate,
-                    endDate);
-
-            BigDecimal weeklyWorkedHours = attendanceService.calculateWeeklyHours(employeeNumber, startDate,
-                    endDate);
-
-            // Check for null and default to BigDecimal.ZERO
-            // (Note: The service methods now throw IllegalArgumentException, so null checks
-            // here might be redundant if those are strictly adhered to)
-            sssDeduction = (sssDeduction != null) ? sssDeduction : BigDecimal.ZERO;
-            philhealthDeduction = (philhealthDeduction != null) ? philhealthDeduction : BigDecimal.ZERO;
-            pagibigDeduction = (pagibigDeduction != null) ? pagibigDeduction : BigDecimal.ZERO;
-            withholdingTax = (withholdingTax != null) ? withholdingTax : BigDecimal.ZERO; // Added withholding tax check
-
-            // Compute net salary
-            BigDecimal totalDeductions = sssDeduction.add(philhealthDeduction).add(pagibigDeduction)
-                    .add(withholdingTax);
-            BigDecimal netWeeklySalary = grossWeeklySalary.subtract(totalDeductions);
+            // Load the employee and the week's attendance once; every figure below is
+            // computed from (and memoized in) this context
+            PayrollEntryDTO payslip = salaryService
+                    .calculateNetSalary(salaryService.openWeeklyContext(employeeNumber, startDate, endDate));
 
             // Return response
             Map<String, BigDecimal> response = Map.of(
-                    "weekly_worked_hours", weeklyWorkedHours,
-                    "gross_weekly_salary", grossWeeklySalary,
-                    "weekly_sss_deduction", sssDeduction,
-                    "weekly_philhealth_deduction", philhealthDeduction,
-                    "weekly_pagibig_deduction", pagibigDeduction,
-                    "weekly_withholding_tax", withholdingTax,
-                    "total_deductions", totalDeductions,
-                    "net_weekly_salary", netWeeklySalary);
+                    "weekly_worked_hours", payslip.getWorkedHours(),
+                    "gross_weekly_salary", payslip.getGrossSalary(),
+                    "weekly_sss_deduction", payslip.getSssDeduction(),
+                    "weekly_philhealth_deduction", payslip.getPhilhealthDeduction(),
+                    "weekly_pagibig_deduction", payslip.getPagibigDeduction(),
+                    "weekly_withholding_tax", payslip.getWithholdingTax(),
+                    "total_deductions", payslip.getTotalDeductions(),
+                    "net_weekly_salary", payslip.getNetSalary());
 
             return ResponseEntity.ok(response);
 
@@ -262,39 +250,21 @@ public ResponseEntity<?> calculateNetMonthlySalary(
                 employeeNumber = userDetails.getUsername();
             }
 
-            // Retrieve salary details
-            BigDecimal grossMonthlySalary = salaryService.calculateGrossMonthlySalary(employeeNumber, yearMonth);
-
-            // Retrieve Monthly Deductions using the new monthly methods
-            BigDecimal sssDeduction = deductionsService.calculateMonthlySssDeduction(employeeNumber, yearMonth);
-            BigDecimal philhealthDeduction = deductionsService.calculateMonthlyPhilHealthDeduction(employeeNumber,
-                    yearMonth);
-            BigDecimal pagibigDeduction = deductionsService.calculateMonthlyPagIbigDeduction(employeeNumber, yearMonth);
-            BigDecimal withholdingTax = deductionsService.calculateMonthlyWithholdingTax(employeeNumber, yearMonth);
-
-            BigDecimal monthlyWorkedHours = attendanceService.calculateMonthlyHours(employeeNumber, yearMonth);
-
-            // Check for null and default to BigDecimal.ZERO
-            sssDeduction = (sssDeduction != null) ? sssDeduction : BigDecimal.ZERO;
-            philhealthDeduction = (philhealthDeduction != null) ? philhealthDeduction : BigDecimal.ZERO;
-            pagibigDeduction = (pagibigDeduction != null) ? pagibigDeduction : BigDecimal.ZERO;
-            withholdingTax = (withholdingTax != null) ? withholdingTax : BigDecimal.ZERO;
-
-            // Compute net salary
-            BigDecimal totalDeductions = sssDeduction.add(philhealthDeduction).add(pagibigDeduction)
-                    .add(withholdingTax);
-            BigDecimal netMonthlySalary = grossMonthlySalary.subtract(totalDeductions);
+            // Load the employee and the month's attendance once; every figure below is
+            // computed from (and memoized in) this context
+            PayrollEntryDTO payslip = salaryService
+                    .calculateNetSalary(salaryService.openMonthlyContext(employeeNumber, yearMonth));
 
             // Return response
             Map<String, BigDecimal> response = Map.of(
-                    "monthly_worked_hours", monthlyWorkedHours,
-                    "gross_monthly_salary", grossMonthlySalary,
-                    "monthly_sss_deduction", sssDeduction,
-                    "monthly_philhealth_deduction", philhealthDeduction,
-                    "monthly_pagibig_deduction", pagibigDeduction,
-                    "monthly_withholding_tax", withholdingTax,
-                    "total_deductions", totalDeductions,
-                    "net_monthly_salary", netMonthlySalary);
+                    "monthly_worked_hours", payslip.getWorkedHours(),
+                    "gross_monthly_salary", payslip.getGrossSalary(),
+                    "monthly_sss_deduction", payslip.getSssDeduction(),
+                    "monthly_philhealth_deduction", payslip.getPhilhealthDeduction(),
+                    "monthly_pagibig_deduction", payslip.getPagibigDeduction(),
+                    "monthly_withholding_tax", payslip.getWithholdingTax(),
+                    "total_deductions", payslip.getTotalDeductions(),
+                    "net_monthly_salary", payslip.getNetSalary());
 
             return ResponseEntity.ok(response);
 
@@ -307,4 +277,289 @@ public ResponseEntity<?> calculateNetMonthlySalary(
                     .body("Error calculating net monthly salary: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // --- SEMI-MONTHLY AND CUSTOM PERIOD ENDPOINTS ---
+
+    /**
+     * Endpoint to calculate the net semi-monthly salary for an employee, for the
+     * 1st-15th (half 1) or the 16th to the end (half 2) of a month.
+     *
+     * @param userDetails    The authenticated user details.
+     * @param employeeNumber The employee number (optional for employees, required
+     *                       for admins).
+     * @param yearMonth      The month and year (e.g., "2024-06").
+     * @param half           1 for the 1st-15th, 2 for the 16th-end of the month.
+     * @return A ResponseEntity containing the net semi-monthly salary in JSON
+     *         format.
+     */
+    @GetMapping("/semi-monthly/net")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or #employeeNumber == authentication.name")
+    public ResponseEntity<?> calculateNetSemiMonthlySalary(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String employeeNumber,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth,
+            @RequestParam int half) {
+
+        try {
+            if (employeeNumber == null) {
+                employeeNumber = userDetails.getUsername();
+            }
+
+            PayrollEntryDTO payslip = salaryService.calculateNetSalary(
+                    salaryService.openContext(employeeNumber, PayPeriod.semiMonthly(yearMonth, half)));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("start_date", payslip.getStartDate());
+            response.put("end_date", payslip.getEndDate());
+            response.put("semi_monthly_worked_hours", payslip.getWorkedHours());
+            response.put("gross_semi_monthly_salary", payslip.getGrossSalary());
+            response.put("semi_monthly_sss_deduction", payslip.getSssDeduction());
+            response.put("semi_monthly_philhealth_deduction", payslip.getPhilhealthDeduction());
+            response.put("semi_monthly_pagibig_deduction", payslip.getPagibigDeduction());
+            response.put("semi_monthly_withholding_tax", payslip.getWithholdingTax());
+            response.put("total_deductions", payslip.getTotalDeductions());
+            response.put("net_semi_monthly_salary", payslip.getNetSalary());
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Error calculating net semi-monthly salary (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error calculating net semi-monthly salary: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error calculating net semi-monthly salary: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to calculate the payslip of an employee for a custom date range.
+     * Contributions and withholding tax are the range's prorated share of the
+     * monthly amounts (see {@link PayPeriod#prorate(long)}).
+     *
+     * @param userDetails    The authenticated user details.
+     * @param employeeNumber The employee number (optional for employees, required
+     *                       for admins).
+     * @param startDate      The first date of the range.
+     * @param endDate        The last date of the range.
+     * @return A ResponseEntity containing the payroll entry of the range.
+     */
+    @GetMapping("/period/net")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or #employeeNumber == authentication.name")
+    public ResponseEntity<?> calculateNetPeriodSalary(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String employeeNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        try {
+            if (employeeNumber == null) {
+                employeeNumber = userDetails.getUsername();
+            }
+
+            PayrollEntryDTO payslip = salaryService.calculateNetSalary(
+                    salaryService.openContext(employeeNumber, PayPeriod.custom(startDate, endDate)));
+            return ResponseEntity.ok(payslip);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Error calculating net salary for period (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error calculating net salary for period: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error calculating net salary for period: " + e.getMessage());
+        }
+    }
+
+    // --- TEAM ENDPOINTS ---
+
+    /**
+     * Summarizes the hours, lateness and estimated pay of a supervisor's team for
+     * the cut-off containing a date, with one line per member and team totals.
+     * Supervisors can only see their own team; admins can see any team.
+     *
+     * @param userDetails     The authenticated user details.
+     * @param employeeNumber  The supervisor's employee number (optional for
+     *                        employees, required for admins).
+     * @param periodType      WEEKLY, SEMI_MONTHLY (default) or MONTHLY.
+     * @param date            A date in the cut-off; defaults to today.
+     * @param includeIndirect Whether to include indirect reports.
+     * @return A ResponseEntity containing the team summary, 404 when there is no
+     *         such employee, or an error message.
+     */
+    @GetMapping("/team-summary")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or #employeeNumber == authentication.name")
+    public ResponseEntity<?> getTeamSummary(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String employeeNumber,
+            @RequestParam(defaultValue = "SEMI_MONTHLY") String periodType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "false") boolean includeIndirect) {
+
+        try {
+            if (employeeNumber == null) {
+                employeeNumber = userDetails.getUsername();
+            }
+
+            PayPeriod period = PayPeriod.containing(PayrollContext.PeriodType.valueOf(periodType.toUpperCase()),
+                    date == null ? LocalDate.now() : date);
+            Optional<TeamSummaryDTO> summary = teamSummaryService.getTeamSummary(employeeNumber, period,
+                    includeIndirect);
+            return summary.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Error summarizing team (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error summarizing team: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error summarizing team: " + e.getMessage());
+        }
+    }
+
+    // --- PAYROLL RUN ENDPOINTS (ADMIN) ---
+
+    /**
+     * Runs the weekly payroll of every employee in one pass.
+     * Accessible by administrators only.
+     *
+     * @param startDate The start date (Monday) of the week.
+     * @param endDate   The end date (Sunday) of the week.
+     * @return A ResponseEntity containing one payroll entry per employee or an
+     *         error message.
+     */
+    @GetMapping("/admin/payroll-run/weekly")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runWeeklyPayroll(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        try {
+            List<PayrollEntryDTO> entries = payrollRunService.runWeeklyPayroll(startDate, endDate);
+            return ResponseEntity.ok(entries);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Error running weekly payroll (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error running weekly payroll: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error running weekly payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the monthly payroll of every employee in one pass.
+     * Accessible by administrators only.
+     *
+     * @param yearMonth The month and year of the run (e.g., "2024-06").
+     * @return A ResponseEntity containing one payroll entry per employee or an
+     *         error message.
+     */
+    @GetMapping("/admin/payroll-run/monthly")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runMonthlyPayroll(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth) {
+
+        try {
+            List<PayrollEntryDTO> entries = payrollRunService.runMonthlyPayroll(yearMonth);
+            return ResponseEntity.ok(entries);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Error running monthly payroll (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error running monthly payroll: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error running monthly payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the semi-monthly payroll of every employee in one pass.
+     * Accessible by administrators only.
+     *
+     * @param yearMonth The month and year of the run (e.g., "2024-06").
+     * @param half      1 for the 1st-15th, 2 for the 16th-end of the month.
+     * @return A ResponseEntity containing one payroll entry per employee or an
+     *         error message.
+     */
+    @GetMapping("/admin/payroll-run/semi-monthly")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runSemiMonthlyPayroll(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth,
+            @RequestParam int half) {
+
+        try {
+            List<PayrollEntryDTO> entries = payrollRunService.runPayroll(PayPeriod.semiMonthly(yearMonth, half));
+            return ResponseEntity.ok(entries);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Error running semi-monthly payroll (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error running semi-monthly payroll: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error running semi-monthly payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exports the weekly payroll register of every Monday-Sunday week in a range
+     * as a CSV download, written to the response as each week is computed.
+     * Accessible by administrators only.
+     *
+     * @param startDate The start date (a Monday) of the first week.
+     * @param endDate   The end date (a Sunday) of the last week.
+     * @return The streamed CSV, or an error message if the range is invalid.
+     */
+    @GetMapping("/admin/payroll-register/weekly.csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportWeeklyPayrollRegister(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        try {
+            payrollRunService.checkWeeklyRange(startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error exporting weekly payroll register (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        StreamingResponseBody body = out -> exportService.writeWeeklyPayrollCsv(startDate, endDate, out);
+        return csvDownload("payroll_weekly_" + startDate + "_" + endDate + ".csv", body);
+    }
+
+    /**
+     * Exports the monthly payroll register of every month in a range as a CSV
+     * download, written to the response as each month is computed.
+     * Accessible by administrators only.
+     *
+     * @param from The first month (e.g., "2024-06").
+     * @param to   The last month, inclusive (e.g., "2024-12").
+     * @return The streamed CSV, or an error message if the range is invalid.
+     */
+    @GetMapping("/admin/payroll-register/monthly.csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportMonthlyPayrollRegister(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+
+        try {
+            payrollRunService.checkMonthlyRange(from, to);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error exporting monthly payroll register (invalid input): {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        StreamingResponseBody body = out -> exportService.writeMonthlyPayrollCsv(from, to, out);
+        return csvDownload("payroll_monthly_" + from + "_" + to + ".csv", body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> csvDownload(String filename, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -1,7 +1,5 @@
 package com.imperionite.cp2a.dtos;
 
-import com.imperionite.cp2a.entities.User;
-
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,5 +17,12 @@ public class AdminEmployeeDTO {
     private String lastName;
     private String firstName;
     private LocalDate birthday;
-    private User user;
-}
\ No newline at end of file
+    private UserResponseDTO user;
+
+    // Flat row of the JPQL constructor expression; the user columns are null when there is no user
+    public AdminEmployeeDTO(Long id, String employeeNumber, String lastName, String firstName, LocalDate birthday,
+            Long userId, String username, Boolean isActive, Boolean isAdmin) {
+        this(id, employeeNumber, lastName, firstName, birthday,
+                userId == null ? null : new UserResponseDTO(userId, username, isActive, isAdmin));
+    }
+}
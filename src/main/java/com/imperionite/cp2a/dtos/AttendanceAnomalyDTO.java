@@ -0,0 +1,34 @@
+package com.imperionite.cp2a.dtos;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An attendance record that would make payroll wrong or fail.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceAnomalyDTO {
+
+    public enum Type {
+        ZERO_LENGTH_SHIFT, // Log-out equals log-in, usually a missed punch
+        LOGOUT_BEFORE_LOGIN, // Negative worked minutes
+        IMPOSSIBLE_SHIFT, // Longer than the configured maximum shift
+        UNKNOWN_EMPLOYEE // No employee with this number
+    }
+
+    private Type type;
+    private Long attendanceId; // Null when detected on write before an id was assigned
+    private String employeeNumber;
+    private LocalDate date;
+    private LocalTime logIn;
+    private LocalTime logOut;
+    private String detail;
+}
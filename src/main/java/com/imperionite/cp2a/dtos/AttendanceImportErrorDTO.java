@@ -0,0 +1,13 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceImportErrorDTO {
+    private long line; // 1-based line of the upload (the CSV header is line 1)
+    private String employeeNumber;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceImportResultDTO {
+    private String format;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private List<AttendanceImportErrorDTO> errors = new ArrayList<>(); // capped, see errorsTruncated
+    private boolean errorsTruncated;
+    private long durationMillis;
+}
@@ -0,0 +1,22 @@
+package com.imperionite.cp2a.dtos;
+
+import java.util.List;
+
+import com.imperionite.cp2a.entities.Attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One keyset page of attendance records ordered by date and id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendancePageDTO {
+    private List<Attendance> items;
+    private String nextCursor; // Opaque; null on the last page
+}
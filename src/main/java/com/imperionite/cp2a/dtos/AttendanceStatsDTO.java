@@ -0,0 +1,23 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Hours, lateness and presence of one employee over a date range, computed by
+ * the in-memory attendance column store.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceStatsDTO {
+    private String employeeNumber;
+    private Long workedMinutes; // Total minutes between log-in and log-out
+    private Long lateMinutes; // Total minutes logged in past the 8:10 grace time
+    private Long lateDays; // Days logged in past the 8:10 grace time
+    private Long creditedCentiHours; // Hundredths of an hour, rounded per day like payroll
+    private Long daysPresent; // Distinct dates with attendance
+}
@@ -0,0 +1,23 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Nearest-rank percentiles of a set of per-day minute values (e.g. the late
+ * minutes of every late day). All values are 0 when the set is empty.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributionDTO {
+    private long count;
+    private long p50;
+    private long p75;
+    private long p90;
+    private long p95;
+    private long max;
+}
@@ -0,0 +1,16 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeCacheStatsDTO {
+    private Long size;
+    private Long hits;
+    private Long misses;
+    private Double hitRate;
+    private Long evictions;
+    private Long invalidations;
+}
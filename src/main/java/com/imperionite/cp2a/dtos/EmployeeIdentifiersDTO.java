@@ -0,0 +1,16 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeIdentifiersDTO {
+    private String employeeNumber;
+    private String phoneNumber;
+    private String sss;
+    private String philhealth;
+    private String tin;
+    private String pagibig;
+}
@@ -0,0 +1,19 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeImportResultDTO {
+    private long rowsRead;
+    private long rowsCreated;
+    private long rowsRejected;
+    private long usersCreated; // the other created rows were linked to an existing user
+    private List<EmployeeImportRowDTO> rows = new ArrayList<>(); // one result per row, in upload order
+    private long durationMillis;
+}
@@ -0,0 +1,14 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeImportRowDTO {
+    private long line; // 1-based line of the upload (the CSV header is line 1)
+    private String employeeNumber;
+    private String status; // CREATED or REJECTED
+    private String message; // why a row was rejected, or that an existing user was linked
+}
@@ -0,0 +1,15 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeOrgInfoDTO {
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private String position;
+    private String immediateSupervisor;
+}
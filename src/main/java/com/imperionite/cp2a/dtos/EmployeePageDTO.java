@@ -0,0 +1,23 @@
+package com.imperionite.cp2a.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One page of the filtered and sorted employee list.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePageDTO {
+    private List<EmployeeSummaryDTO> items;
+    private Integer page; // 0-based
+    private Integer size;
+    private Long totalElements;
+    private Integer totalPages;
+}
@@ -2,8 +2,6 @@
 
 import lombok.*;
 
-import com.imperionite.cp2a.entities.User;
-
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,6 +15,14 @@ public class EmployeePartialDetailsDTO {
     private String philhealth;
     private String tin;
     private String pagibig;
-    private User user;
+    private UserResponseDTO user;
+
+    // Flat row of the JPQL constructor expression; the user columns are null when there is no user
+    public EmployeePartialDetailsDTO(Long id, String employeeNumber, String firstName, String lastName, String sss,
+            String philhealth, String tin, String pagibig, Long userId, String username, Boolean isActive,
+            Boolean isAdmin) {
+        this(id, employeeNumber, firstName, lastName, sss, philhealth, tin, pagibig,
+                userId == null ? null : new UserResponseDTO(userId, username, isActive, isAdmin));
+    }
 
 }
@@ -0,0 +1,25 @@
+package com.imperionite.cp2a.dtos;
+
+import java.math.BigDecimal;
+
+import lombok.*;
+
+/**
+ * The employee attributes payroll and attendance need on every request, held
+ * by the employee cache instead of the full entity.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePayrollInfoDTO {
+    private Long id;
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private String status;
+    private String position;
+    private BigDecimal basicSalary;
+    private BigDecimal grossSemiMonthlyRate;
+    private BigDecimal hourlyRate;
+}
@@ -0,0 +1,19 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+/**
+ * The searchable fields of one employee, loaded into the typeahead index.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearchInfoDTO {
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private String position;
+    private String sss;
+    private String tin;
+}
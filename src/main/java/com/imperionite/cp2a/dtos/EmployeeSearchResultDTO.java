@@ -0,0 +1,19 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+/**
+ * One ranked typeahead match.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearchResultDTO {
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private String position;
+    private String matchedField; // EMPLOYEE_NUMBER, LAST_NAME, FIRST_NAME, SSS or TIN
+    private Integer score;
+}
@@ -0,0 +1,23 @@
+package com.imperionite.cp2a.dtos;
+
+import java.time.LocalDate;
+
+import lombok.*;
+
+/**
+ * One row of the paged employee list.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSummaryDTO {
+    private Long id;
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private LocalDate birthday;
+    private String status;
+    private String position;
+    private String immediateSupervisor;
+}
@@ -0,0 +1,29 @@
+package com.imperionite.cp2a.dtos;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Workforce lateness and undertime for a period, overall and broken down by
+ * employee, position and immediate supervisor.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatenessReportDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalTime gracePeriodEnd; // Log-ins after this time are late
+    private LocalTime shiftEnd; // Log-outs before this time are undertime
+    private LatenessStatsDTO workforce;
+    private List<LatenessStatsDTO> byEmployee;
+    private List<LatenessStatsDTO> byPosition;
+    private List<LatenessStatsDTO> bySupervisor;
+}
@@ -0,0 +1,27 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lateness and undertime of one group (an employee, a position, a supervisor's
+ * team or the whole workforce) over a period.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatenessStatsDTO {
+    private String group; // Employee number, position or supervisor name; "ALL" for the workforce
+    private String name; // Employee name when grouped by employee, otherwise null
+    private long employees; // Employees with attendance in the period
+    private long daysPresent;
+    private long lateDays; // Days logged in past the grace time
+    private long lateMinutes;
+    private long undertimeDays; // Days logged out before the shift end
+    private long undertimeMinutes;
+    private DistributionDTO lateDistribution; // Late minutes per late day
+    private DistributionDTO undertimeDistribution; // Undertime minutes per undertime day
+}
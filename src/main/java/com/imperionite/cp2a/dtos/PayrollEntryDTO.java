@@ -0,0 +1,27 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One employee's line in a payroll run (gross, statutory deductions and net for a period)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollEntryDTO {
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal workedHours;
+    private BigDecimal grossSalary;
+    private BigDecimal sssDeduction;
+    private BigDecimal philhealthDeduction;
+    private BigDecimal pagibigDeduction;
+    private BigDecimal withholdingTax;
+    private BigDecimal totalDeductions;
+    private BigDecimal netSalary;
+}
@@ -0,0 +1,21 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+/**
+ * One employee's place in the reporting hierarchy.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportingNodeDTO {
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private String position;
+    private String supervisorEmployeeNumber; // Null at the top or when the supervisor name matches no one
+    private Integer level; // 0 at the top of the hierarchy
+    private Integer directReports;
+    private Integer totalReports; // Direct and indirect
+}
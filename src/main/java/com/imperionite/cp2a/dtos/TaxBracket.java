@@ -0,0 +1,11 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class TaxBracket {
+    private BigDecimal over; // bracket applies to taxable income above this amount
+    private BigDecimal baseTax; // optional; derived from the previous bracket when omitted
+    private BigDecimal rate; // rate applied to the amount in excess of "over"
+}
@@ -0,0 +1,10 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class TaxTableDefinition {
+    private String description;
+    private List<TaxBracket> brackets;
+}
@@ -0,0 +1,25 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One team member's attendance and estimated pay for a cut-off.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamMemberSummaryDTO {
+    private String employeeNumber;
+    private String lastName;
+    private String firstName;
+    private String position;
+    private Long daysPresent;
+    private BigDecimal workedHours; // Credited hours, after late deductions, as on the payslip
+    private Long lateMinutes;
+    private BigDecimal grossSalary;
+    private BigDecimal totalDeductions;
+    private BigDecimal netSalary;
+}
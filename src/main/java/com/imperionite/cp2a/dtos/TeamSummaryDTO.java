@@ -0,0 +1,30 @@
+package com.imperionite.cp2a.dtos;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A supervisor's team for one cut-off: totals and one line per member.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamSummaryDTO {
+    private String supervisorEmployeeNumber;
+    private String periodType; // WEEKLY, SEMI_MONTHLY or MONTHLY
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer headcount;
+    private Integer membersLate; // Members with any late minutes in the cut-off
+    private Long daysPresent;
+    private BigDecimal workedHours;
+    private Long lateMinutes;
+    private BigDecimal grossSalary;
+    private BigDecimal totalDeductions;
+    private BigDecimal netSalary;
+    private List<TeamMemberSummaryDTO> members;
+}
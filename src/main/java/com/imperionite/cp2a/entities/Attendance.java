@@ -9,7 +9,11 @@
 import java.util.Objects; // Import for equals and hashCode
 
 @Entity
-@Table(name = "attendance")
+// One row per employee and day (see equals/hashCode); the indexes are created by the
+// Flyway migrations in db/migration and mirrored here so Hibernate does not add its own.
+@Table(name = "attendance", uniqueConstraints = @UniqueConstraint(name = "uk_attendance_employee_date",
+        columnNames = { "employee_number", "date" }), indexes = @Index(name = "idx_attendance_date",
+        columnList = "date"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -11,7 +11,14 @@
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "employees")
+// Indexes for the filters and name-prefix search of the paged employee list; created by
+// Hibernate's schema update, which owns this table
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_status", columnList = "status"),
+        @Index(name = "idx_employees_position", columnList = "position"),
+        @Index(name = "idx_employees_supervisor", columnList = "immediate_supervisor"),
+        @Index(name = "idx_employees_last_name", columnList = "last_name"),
+        @Index(name = "idx_employees_first_name", columnList = "first_name") })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,21 +1,48 @@
 package com.imperionite.cp2a.repositories;
 
 import com.imperionite.cp2a.entities.Attendance;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
+
+    // Replaces an existing row for the same employee and day (unique key uk_attendance_employee_date)
+    String UPSERT_ON_DUPLICATE = "ON DUPLICATE KEY UPDATE last_name = VALUES(last_name), "
+            + "first_name = VALUES(first_name), log_in = VALUES(log_in), log_out = VALUES(log_out)";
+
     List<Attendance> findByEmployeeNumberAndDateBetween(String employeeNumber, LocalDate startDate, LocalDate endDate);
 
     List<Attendance> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
+    // Keyset page over (date, id), starting after the row (:afterDate, :afterId). The date index
+    // serves this ordering directly because InnoDB appends the primary key to secondary indexes.
+    @Query("SELECT a FROM Attendance a WHERE a.date BETWEEN :startDate AND :endDate "
+            + "AND (a.date > :afterDate OR (a.date = :afterDate AND a.id > :afterId)) ORDER BY a.date, a.id")
+    List<Attendance> findPageByDateRange(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate, @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId, Limit limit);
+
+    // Streams a date range in (date, id) order; fetched from a server-side cursor
+    // (useCursorFetch=true on the URL) so rows are never all held in memory
+    @QueryHints({ @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT a FROM Attendance a WHERE a.date BETWEEN :startDate AND :endDate ORDER BY a.date, a.id")
+    Stream<Attendance> streamByDateRange(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     @Query("SELECT MIN(a.date) FROM Attendance a") // JPQL query
     LocalDate findMinDate();
 
@@ -31,4 +58,11 @@ List<Attendance> findAttendancesForWeek(@Param("employeeNumber") String employee
 
     // Get Attendance by employee number and date
     Optional<Attendance> findByEmployeeNumberAndDate(String employeeNumber, LocalDate date);
+
+    // Inserts the attendance of an employee for a day, or overwrites that day's times
+    @Modifying
+    @Query(value = "INSERT INTO attendance (employee_number, last_name, first_name, date, log_in, log_out) "
+            + "VALUES (:#{#a.employeeNumber}, :#{#a.lastName}, :#{#a.firstName}, :#{#a.date}, :#{#a.logIn}, "
+            + ":#{#a.logOut}) " + UPSERT_ON_DUPLICATE, nativeQuery = true)
+    int upsert(@Param("a") Attendance attendance);
 }
\ No newline at end of file
@@ -1,13 +1,100 @@
 package com.imperionite.cp2a.repositories;
 
+import com.imperionite.cp2a.dtos.AdminEmployeeDTO;
+import com.imperionite.cp2a.dtos.EmployeeBasicInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeIdentifiersDTO;
+import com.imperionite.cp2a.dtos.EmployeeOrgInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeePartialDetailsDTO;
+import com.imperionite.cp2a.dtos.EmployeePayrollInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeSearchInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeSummaryDTO;
 import com.imperionite.cp2a.entities.Employee;
 import com.imperionite.cp2a.entities.User;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
-    Optional<Employee> findByEmployeeNumber(String employeeNumber);
+    // Fetch-joins the user so a lookup is a single round trip instead of employee + user selects
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.user WHERE e.employeeNumber = :employeeNumber")
+    Optional<Employee> findByEmployeeNumber(@Param("employeeNumber") String employeeNumber);
     Optional<Employee> findById(Long id);
     Optional<Employee> findByUser(User user);
-}
\ No newline at end of file
+
+    // Lightweight id/number/name rows (no User join), e.g. to resolve employee numbers in bulk
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeeBasicInfoDTO(e.id, e.employeeNumber, e.lastName, "
+            + "e.firstName, e.birthday) FROM Employee e")
+    List<EmployeeBasicInfoDTO> findAllBasicInfo();
+
+    // Basic info of one employee (no User join)
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeeBasicInfoDTO(e.id, e.employeeNumber, e.lastName, "
+            + "e.firstName, e.birthday) FROM Employee e WHERE e.employeeNumber = :employeeNumber")
+    Optional<EmployeeBasicInfoDTO> findBasicInfoByEmployeeNumber(@Param("employeeNumber") String employeeNumber);
+
+    // Admin list rows: basic info plus the user's id, username and flags (never the password hash)
+    @Query("SELECT new com.imperionite.cp2a.dtos.AdminEmployeeDTO(e.id, e.employeeNumber, e.lastName, "
+            + "e.firstName, e.birthday, u.id, u.username, u.isActive, u.isAdmin) FROM Employee e LEFT JOIN e.user u")
+    List<AdminEmployeeDTO> findAllAdminInfo();
+
+    // Government ids of every employee plus the user's id, username and flags
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeePartialDetailsDTO(e.id, e.employeeNumber, e.firstName, "
+            + "e.lastName, e.sss, e.philhealth, e.tin, e.pagibig, u.id, u.username, u.isActive, u.isAdmin) "
+            + "FROM Employee e LEFT JOIN e.user u")
+    List<EmployeePartialDetailsDTO> findAllPartialDetails();
+
+    // Number, name, position and supervisor of every employee (no User join), for workforce reports
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeeOrgInfoDTO(e.employeeNumber, e.lastName, e.firstName, "
+            + "e.position, e.immediateSupervisor) FROM Employee e")
+    List<EmployeeOrgInfoDTO> findAllOrgInfo();
+
+    // Payroll attributes of one employee (no User join), loaded into the employee cache
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeePayrollInfoDTO(e.id, e.employeeNumber, e.lastName, "
+            + "e.firstName, e.status, e.position, e.basicSalary, e.grossSemiMonthlyRate, e.hourlyRate) "
+            + "FROM Employee e WHERE e.employeeNumber = :employeeNumber")
+    Optional<EmployeePayrollInfoDTO> findPayrollInfoByEmployeeNumber(@Param("employeeNumber") String employeeNumber);
+
+    // Payroll attributes of every employee (no User join), for whole-workforce payroll runs
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeePayrollInfoDTO(e.id, e.employeeNumber, e.lastName, "
+            + "e.firstName, e.status, e.position, e.basicSalary, e.grossSemiMonthlyRate, e.hourlyRate) "
+            + "FROM Employee e ORDER BY e.employeeNumber")
+    List<EmployeePayrollInfoDTO> findAllPayrollInfo();
+
+    // Payroll attributes of several employees at once, for bulk loads into the employee cache
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeePayrollInfoDTO(e.id, e.employeeNumber, e.lastName, "
+            + "e.firstName, e.status, e.position, e.basicSalary, e.grossSemiMonthlyRate, e.hourlyRate) "
+            + "FROM Employee e WHERE e.employeeNumber IN :employeeNumbers")
+    List<EmployeePayrollInfoDTO> findPayrollInfoByEmployeeNumbers(
+            @Param("employeeNumbers") Collection<String> employeeNumbers);
+
+    // Searchable fields of every employee (no User join), for the typeahead index
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeeSearchInfoDTO(e.employeeNumber, e.lastName, e.firstName, "
+            + "e.position, e.sss, e.tin) FROM Employee e")
+    List<EmployeeSearchInfoDTO> findAllSearchInfo();
+
+    // Employee number and the unique contact and government ids of every employee (no User join), so a
+    // bulk import can reject duplicates row by row before writing
+    @Query("SELECT new com.imperionite.cp2a.dtos.EmployeeIdentifiersDTO(e.employeeNumber, e.phoneNumber, e.sss, "
+            + "e.philhealth, e.tin, e.pagibig) FROM Employee e")
+    List<EmployeeIdentifiersDTO> findAllIdentifiers();
+
+    String SEARCH_FILTER = "WHERE (:status IS NULL OR e.status = :status) "
+            + "AND (:position IS NULL OR e.position = :position) "
+            + "AND (:supervisor IS NULL OR e.immediateSupervisor = :supervisor) "
+            + "AND (:namePrefix IS NULL OR e.lastName LIKE :namePrefix ESCAPE '!' "
+            + "OR e.firstName LIKE :namePrefix ESCAPE '!')";
+
+    // One page of employee rows (no User join); null filters match everything, namePrefix is a
+    // LIKE pattern ending in %. The sort comes from the Pageable; the total from a COUNT over the same filters.
+    @Query(value = "SELECT new com.imperionite.cp2a.dtos.EmployeeSummaryDTO(e.id, e.employeeNumber, e.lastName, "
+            + "e.firstName, e.birthday, e.status, e.position, e.immediateSupervisor) FROM Employee e "
+            + SEARCH_FILTER, countQuery = "SELECT COUNT(e) FROM Employee e " + SEARCH_FILTER)
+    Page<EmployeeSummaryDTO> searchSummaries(@Param("status") String status, @Param("position") String position,
+            @Param("supervisor") String supervisor, @Param("namePrefix") String namePrefix, Pageable pageable);
+}
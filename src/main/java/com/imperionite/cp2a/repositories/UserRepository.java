@@ -3,8 +3,10 @@
 import com.imperionite.cp2a.entities.User;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username); // Find user by username
     boolean existsByUsername(String username);
 
+    // Every username, e.g. to check a bulk import for taken usernames with one query
+    @Query("SELECT u.username FROM User u")
+    List<String> findAllUsernames();
+
+    // Users that no employee is linked to; a bulk import links them to the employee of the same number
+    @Query("SELECT u FROM User u WHERE NOT EXISTS (SELECT e FROM Employee e WHERE e.user = u)")
+    List<User> findAllWithoutEmployee();
+
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+// AttendanceAnalyticsService.java
+package com.imperionite.cp2a.services;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.imperionite.cp2a.dtos.DistributionDTO;
+import com.imperionite.cp2a.dtos.EmployeeOrgInfoDTO;
+import com.imperionite.cp2a.dtos.LatenessReportDTO;
+import com.imperionite.cp2a.dtos.LatenessStatsDTO;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+/**
+ * Workforce lateness and undertime reports.
+ *
+ * A report makes one pass over the period's attendance in the
+ * {@link AttendanceColumnStore}, collecting each employee's late and undertime
+ * minutes per day. Position, supervisor and workforce groups are then built
+ * from the employee groups, so every breakdown comes from the same scan.
+ * Lateness uses the 8:10 grace rule of {@link WorkMinutes}; undertime is the
+ * time logged out before {@code attendance.analytics.shift-end}.
+ */
+@Service
+public class AttendanceAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceAnalyticsService.class);
+
+    static final String ALL = "ALL";
+    static final String UNKNOWN = "Unknown";
+
+    @Autowired
+    private AttendanceColumnStore attendanceColumnStore;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Value("${attendance.analytics.shift-end:17:00}")
+    private String shiftEndTime;
+
+    /**
+     * Builds the lateness and undertime report of the whole workforce for a
+     * period.
+     *
+     * @param startDate The start date of the period (inclusive).
+     * @param endDate   The end date of the period (inclusive).
+     * @return The report, overall and by employee, position and supervisor.
+     * @throws IllegalArgumentException If the end date is before the start date.
+     */
+    public LatenessReportDTO getLatenessReport(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate.");
+        }
+        long started = System.currentTimeMillis();
+        LocalTime shiftEnd = LocalTime.parse(shiftEndTime);
+        int shiftEndSecond = shiftEnd.toSecondOfDay();
+
+        // One scan: per-employee day counts and per-day minute values
+        Map<String, Group> employees = new TreeMap<>();
+        attendanceColumnStore.scan(startDate, endDate, (employeeNumber, epochDay, logInSecond, logOutSecond) -> {
+            Group group = employees.computeIfAbsent(employeeNumber, key -> new Group(key, 1));
+            group.daysPresent++;
+            if (WorkMinutes.isLate(logInSecond)) {
+                group.late.add((int) WorkMinutes.lateMinutes(logInSecond));
+            }
+            if (logOutSecond < shiftEndSecond) {
+                group.undertime.add((shiftEndSecond - logOutSecond) / 60);
+            }
+        });
+
+        Map<String, EmployeeOrgInfoDTO> orgInfo = new HashMap<>();
+        for (EmployeeOrgInfoDTO employee : employeeRepository.findAllOrgInfo()) {
+            orgInfo.put(employee.getEmployeeNumber(), employee);
+        }
+
+        Group workforce = new Group(ALL, 0);
+        Map<String, Group> positions = new TreeMap<>();
+        Map<String, Group> supervisors = new TreeMap<>();
+        List<LatenessStatsDTO> byEmployee = new ArrayList<>(employees.size());
+        for (Group employee : employees.values()) {
+            EmployeeOrgInfoDTO info = orgInfo.get(employee.key);
+            String position = info == null ? UNKNOWN : info.getPosition();
+            String supervisor = info == null ? UNKNOWN : info.getImmediateSupervisor();
+
+            workforce.addAll(employee);
+            positions.computeIfAbsent(position, key -> new Group(key, 0)).addAll(employee);
+            supervisors.computeIfAbsent(supervisor, key -> new Group(key, 0)).addAll(employee);
+
+            LatenessStatsDTO stats = employee.toStats();
+            stats.setName(info == null ? null : info.getFirstName() + " " + info.getLastName());
+            byEmployee.add(stats);
+        }
+
+        LatenessReportDTO report = new LatenessReportDTO(startDate, endDate, WorkMinutes.GRACE_PERIOD_END,
+                shiftEnd, workforce.toStats(), byEmployee, toStats(positions), toStats(supervisors));
+        logger.debug("Lateness report for {} to {}: {} employees in {} ms", startDate, endDate, employees.size(),
+                System.currentTimeMillis() - started);
+        return report;
+    }
+
+    private static List<LatenessStatsDTO> toStats(Map<String, Group> groups) {
+        List<LatenessStatsDTO> stats = new ArrayList<>(groups.size());
+        for (Group group : groups.values()) {
+            stats.add(group.toStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the nearest-rank percentiles of some values.
+     *
+     * @param values The values; sorted in place.
+     * @param size   The number of values used from the start of the array.
+     */
+    static DistributionDTO distribution(int[] values, int size) {
+        if (size == 0) {
+            return new DistributionDTO(0, 0, 0, 0, 0, 0);
+        }
+        Arrays.sort(values, 0, size);
+        return new DistributionDTO(size, percentile(values, size, 50), percentile(values, size, 75),
+                percentile(values, size, 90), percentile(values, size, 95), values[size - 1]);
+    }
+
+    private static long percentile(int[] sorted, int size, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * size); // 1-based nearest rank
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Counters and per-day minute values of one group.
+     */
+    private static final class Group {
+
+        final String key;
+        long employees;
+        long daysPresent;
+        final MinuteValues late = new MinuteValues();
+        final MinuteValues undertime = new MinuteValues();
+
+        Group(String key, long employees) {
+            this.key = key;
+            this.employees = employees;
+        }
+
+        void addAll(Group other) {
+            employees += other.employees;
+            daysPresent += other.daysPresent;
+            late.addAll(other.late);
+            undertime.addAll(other.undertime);
+        }
+
+        LatenessStatsDTO toStats() {
+            return new LatenessStatsDTO(key, null, employees, daysPresent, late.size, late.sum, undertime.size,
+                    undertime.sum, distribution(late.values, late.size),
+                    distribution(undertime.values, undertime.size));
+        }
+    }
+
+    /**
+     * A growable list of minute values with their sum.
+     */
+    private static final class MinuteValues {
+
+        int[] values = new int[16];
+        int size;
+        long sum;
+
+        void add(int minutes) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = minutes;
+            sum += minutes;
+        }
+
+        void addAll(MinuteValues other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            sum += other.sum;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+// AttendanceAnomalyDetector.java
+package com.imperionite.cp2a.services;
+
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.imperionite.cp2a.dtos.AttendanceAnomalyDTO;
+import com.imperionite.cp2a.dtos.AttendanceAnomalyDTO.Type;
+import com.imperionite.cp2a.dtos.EmployeeBasicInfoDTO;
+import com.imperionite.cp2a.entities.Attendance;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+/**
+ * Finds attendance records that would break payroll: equal times, log-outs
+ * before log-ins (negative {@code ChronoUnit.MINUTES.between}), shifts longer
+ * than {@code attendance.anomalies.max-shift-hours} and unknown employees.
+ * Missing times and duplicate days cannot occur: the columns are NOT NULL and
+ * (employee_number, date) is a unique key.
+ *
+ * {@link #scan} walks a date range with a forward-only JDBC cursor in
+ * (employee, date) order and hands each anomaly to a consumer as it is found,
+ * so memory does not grow with the range. {@link #inspect} checks records as
+ * they are written and keeps the most recent anomalies for review.
+ */
+@Service
+public class AttendanceAnomalyDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceAnomalyDetector.class);
+
+    /** Anomalies found on write that are kept for {@link #getRecentAnomalies()}. */
+    public static final int MAX_RECENT_ANOMALIES = 1000;
+
+    private static final String SCAN_SQL = "SELECT id, employee_number, date, log_in, log_out FROM attendance "
+            + "WHERE date BETWEEN ? AND ? ORDER BY employee_number, date, id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Value("${attendance.anomalies.max-shift-hours:16}")
+    private long maxShiftHours;
+
+    private final Deque<AttendanceAnomalyDTO> recentAnomalies = new ArrayDeque<>();
+
+    /**
+     * Scans the attendance of a date range and passes every anomaly to a
+     * consumer as soon as it is found.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @param consumer  Receives each anomaly.
+     * @return The number of anomalies found.
+     */
+    public long scan(LocalDate startDate, LocalDate endDate, Consumer<AttendanceAnomalyDTO> consumer) {
+        Set<String> employeeNumbers = new HashSet<>();
+        for (EmployeeBasicInfoDTO employee : employeeRepository.findAllBasicInfo()) {
+            employeeNumbers.add(employee.getEmployeeNumber());
+        }
+
+        ScanState state = new ScanState(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SCAN_SQL);
+            statement.setFetchSize(1000);
+            statement.setObject(1, startDate);
+            statement.setObject(2, endDate);
+            return statement;
+        }, resultSet -> {
+            long id = resultSet.getLong(1);
+            String employeeNumber = resultSet.getString(2);
+            LocalDate date = resultSet.getObject(3, LocalDate.class);
+            Time logIn = resultSet.getTime(4);
+            Time logOut = resultSet.getTime(5);
+            state.rows++;
+
+            AttendanceAnomalyDTO template = new AttendanceAnomalyDTO(null, id, employeeNumber, date,
+                    logIn.toLocalTime(), logOut.toLocalTime(), null);
+
+            if (!employeeNumbers.contains(employeeNumber)) {
+                state.emit(template, Type.UNKNOWN_EMPLOYEE, "No employee with number " + employeeNumber + ".");
+            }
+            for (AttendanceAnomalyDTO anomaly : checkTimes(template)) {
+                state.emit(anomaly);
+            }
+        });
+
+        logger.info("Attendance anomaly scan {} to {}: {} rows, {} anomalies", startDate, endDate, state.rows,
+                state.anomalies);
+        return state.anomalies;
+    }
+
+    /**
+     * Checks records that are being written and keeps their anomalies for
+     * {@link #getRecentAnomalies()}. Inside a transaction the check runs after
+     * commit, so records that were rolled back are not reported.
+     *
+     * @param attendances The written records.
+     */
+    public void inspect(Collection<Attendance> attendances) {
+        List<AttendanceAnomalyDTO> anomalies = new ArrayList<>();
+        for (Attendance attendance : attendances) {
+            anomalies.addAll(checkTimes(new AttendanceAnomalyDTO(null, attendance.getId(),
+                    attendance.getEmployeeNumber(), attendance.getDate(), attendance.getLogIn(),
+                    attendance.getLogOut(), null)));
+        }
+        if (anomalies.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(anomalies);
+                }
+            });
+        } else {
+            remember(anomalies);
+        }
+    }
+
+    /**
+     * @return The anomalies found on write, oldest first (at most
+     *         {@link #MAX_RECENT_ANOMALIES}).
+     */
+    public synchronized List<AttendanceAnomalyDTO> getRecentAnomalies() {
+        return new ArrayList<>(recentAnomalies);
+    }
+
+    private synchronized void remember(List<AttendanceAnomalyDTO> anomalies) {
+        for (AttendanceAnomalyDTO anomaly : anomalies) {
+            logger.warn("Attendance anomaly {} for employee {} on {}: {}", anomaly.getType(),
+                    anomaly.getEmployeeNumber(), anomaly.getDate(), anomaly.getDetail());
+            if (recentAnomalies.size() == MAX_RECENT_ANOMALIES) {
+                recentAnomalies.removeFirst();
+            }
+            recentAnomalies.addLast(anomaly);
+        }
+    }
+
+    /**
+     * Row-level checks on the log-in and log-out times of one record.
+     *
+     * @param record The record, as an anomaly template without type or detail.
+     * @return The anomalies of the record; empty when its times are usable.
+     */
+    List<AttendanceAnomalyDTO> checkTimes(AttendanceAnomalyDTO record) {
+        List<AttendanceAnomalyDTO> anomalies = new ArrayList<>(1);
+        LocalTime logIn = record.getLogIn();
+        LocalTime logOut = record.getLogOut();
+        long minutes = WorkMinutes.minutesBetween(logIn, logOut);
+        if (logOut.isBefore(logIn)) {
+            anomalies.add(withType(record, Type.LOGOUT_BEFORE_LOGIN,
+                    "Log-out is before log-in (" + minutes + " minutes)."));
+        } else if (logOut.equals(logIn)) {
+            anomalies.add(withType(record, Type.ZERO_LENGTH_SHIFT, "Log-out equals log-in."));
+        } else if (minutes > maxShiftHours * 60) {
+            anomalies.add(withType(record, Type.IMPOSSIBLE_SHIFT,
+                    "Shift of " + minutes + " minutes exceeds " + maxShiftHours + " hours."));
+        }
+        return anomalies;
+    }
+
+    private static AttendanceAnomalyDTO withType(AttendanceAnomalyDTO record, Type type, String detail) {
+        return new AttendanceAnomalyDTO(type, record.getAttendanceId(), record.getEmployeeNumber(),
+                record.getDate(), record.getLogIn(), record.getLogOut(), detail);
+    }
+
+    /**
+     * Position and counters of one scan.
+     */
+    private static final class ScanState {
+
+        final Consumer<AttendanceAnomalyDTO> consumer;
+        long rows;
+        long anomalies;
+
+        ScanState(Consumer<AttendanceAnomalyDTO> consumer) {
+            this.consumer = consumer;
+        }
+
+        void emit(AttendanceAnomalyDTO template, Type type, String detail) {
+            emit(withType(template, type, detail));
+        }
+
+        void emit(AttendanceAnomalyDTO anomaly) {
+            anomalies++;
+            consumer.accept(anomaly);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// AttendanceBatchWriter.java
+package com.imperionite.cp2a.services;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.imperionite.cp2a.entities.Attendance;
+import com.imperionite.cp2a.repositories.AttendanceRepository;
+
+/**
+ * Writes attendance records with batched JDBC statements, bypassing the JPA
+ * persistence context. With {@code rewriteBatchedStatements=true} on the MySQL
+ * URL each batch is sent as a single multi-row INSERT. Rows are upserted on the
+ * unique (employee_number, date) key, so re-importing a day overwrites it.
+ *
+ * The writer does not open a transaction; it joins the caller's.
+ */
+@Component
+public class AttendanceBatchWriter {
+
+    private static final String UPSERT_SQL = "INSERT INTO attendance "
+            + "(employee_number, last_name, first_name, date, log_in, log_out) VALUES (?, ?, ?, ?, ?, ?) "
+            + AttendanceRepository.UPSERT_ON_DUPLICATE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts or replaces the records in one JDBC batch.
+     *
+     * @param attendances The records to insert; ids are not read or set.
+     * @return The number of records written.
+     */
+    public int upsert(List<Attendance> attendances) {
+        if (attendances.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, attendances, attendances.size(), (ps, attendance) -> {
+            ps.setString(1, attendance.getEmployeeNumber());
+            ps.setString(2, attendance.getLastName());
+            ps.setString(3, attendance.getFirstName());
+            ps.setDate(4, Date.valueOf(attendance.getDate()));
+            ps.setTime(5, Time.valueOf(attendance.getLogIn()));
+            ps.setTime(6, Time.valueOf(attendance.getLogOut()));
+        });
+        return attendances.size();
+    }
+}
@@ -0,0 +1,373 @@
+// AttendanceColumnStore.java
+package com.imperionite.cp2a.services;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.imperionite.cp2a.dtos.AttendanceStatsDTO;
+import com.imperionite.cp2a.entities.Attendance;
+
+/**
+ * In-memory, column-oriented copy of the attendance history for analytics.
+ *
+ * Each employee's records are held as three parallel primitive arrays sorted by
+ * date: epoch day, log-in second of day and log-out second of day (seconds
+ * rather than minutes so results match {@link WorkMinutes} exactly). A range
+ * query binary-searches the date column and sums the slice in a single loop;
+ * it runs no SQL and creates no entities.
+ *
+ * The store is loaded with one JDBC scan on startup (or on first use) and kept
+ * in sync by the attendance writers, which report their records with
+ * {@link #record(Collection)}; changes are applied when the writing
+ * transaction commits. An employee's arrays are replaced, never modified, so
+ * readers always see a consistent set.
+ */
+@Component
+public class AttendanceColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceColumnStore.class);
+
+    private static final String SCAN_SQL = "SELECT employee_number, date, log_in, log_out FROM attendance "
+            + "ORDER BY employee_number, date";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Map<String, Columns> columnsByEmployee;
+
+    /**
+     * One employee's attendance, sorted by date with one entry per date.
+     */
+    static final class Columns {
+
+        final int[] epochDays;
+        final int[] logInSeconds;
+        final int[] logOutSeconds;
+
+        // Built on first use; the arrays never change, so neither does the series
+        private volatile DailyWorkSeries series;
+
+        Columns(int[] epochDays, int[] logInSeconds, int[] logOutSeconds) {
+            this.epochDays = epochDays;
+            this.logInSeconds = logInSeconds;
+            this.logOutSeconds = logOutSeconds;
+        }
+
+        /**
+         * Returns a copy with the given records inserted, or replacing the entry
+         * for the same date.
+         *
+         * @param changes Records sorted by date, one per date.
+         */
+        Columns merge(Columns changes) {
+            int capacity = epochDays.length + changes.epochDays.length;
+            int[] days = new int[capacity];
+            int[] logIns = new int[capacity];
+            int[] logOuts = new int[capacity];
+
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < epochDays.length || j < changes.epochDays.length) {
+                if (j == changes.epochDays.length
+                        || (i < epochDays.length && epochDays[i] < changes.epochDays[j])) {
+                    days[n] = epochDays[i];
+                    logIns[n] = logInSeconds[i];
+                    logOuts[n++] = logOutSeconds[i++];
+                } else {
+                    if (i < epochDays.length && epochDays[i] == changes.epochDays[j]) {
+                        i++; // replaced by the change
+                    }
+                    days[n] = changes.epochDays[j];
+                    logIns[n] = changes.logInSeconds[j];
+                    logOuts[n++] = changes.logOutSeconds[j++];
+                }
+            }
+            return new Columns(Arrays.copyOf(days, n), Arrays.copyOf(logIns, n), Arrays.copyOf(logOuts, n));
+        }
+
+        DailyWorkSeries series(String employeeNumber) {
+            DailyWorkSeries current = series;
+            if (current == null) {
+                current = new DailyWorkSeries(employeeNumber, epochDays, logInSeconds, logOutSeconds);
+                series = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Loads the store once the application (including the data initializers) is
+     * ready, so the first dashboard request does not pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        columns();
+    }
+
+    /**
+     * Reports attendance records that were inserted or replaced. Inside a
+     * transaction they are applied after commit, so rolled-back writes are
+     * ignored.
+     *
+     * @param attendances The written records.
+     */
+    public void record(Collection<Attendance> attendances) {
+        if (attendances.isEmpty()) {
+            return;
+        }
+        Map<String, Columns> changes = toColumns(attendances); // copied now; callers may reuse the list
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(changes);
+                }
+            });
+        } else {
+            apply(changes);
+        }
+    }
+
+    /**
+     * Discards the store; the next query reloads it from the database.
+     */
+    public void reload() {
+        columnsByEmployee = null;
+    }
+
+    /**
+     * Returns the hours, lateness and presence of one employee within a date
+     * range.
+     *
+     * @param employeeNumber The employee number.
+     * @param startDate      The start date of the range (inclusive).
+     * @param endDate        The end date of the range (inclusive).
+     * @return The totals, or empty when there is no attendance in the range.
+     */
+    public Optional<AttendanceStatsDTO> getStats(String employeeNumber, LocalDate startDate, LocalDate endDate) {
+        Columns columns = columns().get(employeeNumber);
+        return columns == null ? Optional.empty()
+                : Optional.ofNullable(stats(employeeNumber, columns, startDate, endDate));
+    }
+
+    /**
+     * Returns the hours, lateness and presence of every employee with attendance
+     * within a date range, ordered by employee number.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @return One entry per employee with attendance in the range.
+     */
+    public List<AttendanceStatsDTO> getStats(LocalDate startDate, LocalDate endDate) {
+        List<AttendanceStatsDTO> result = new ArrayList<>();
+        columns().forEach((employeeNumber, columns) -> {
+            AttendanceStatsDTO stats = stats(employeeNumber, columns, startDate, endDate);
+            if (stats != null) {
+                result.add(stats);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the daily series of one employee, from which the hours of any
+     * period can be read without a query.
+     *
+     * @param employeeNumber The employee number.
+     * @return The series; empty when the employee has no attendance.
+     */
+    public DailyWorkSeries getDailySeries(String employeeNumber) {
+        Columns columns = columns().get(employeeNumber);
+        return columns == null ? DailyWorkSeries.empty(employeeNumber) : columns.series(employeeNumber);
+    }
+
+    /**
+     * Receives the records of a scan as primitives.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(String employeeNumber, int epochDay, int logInSecond, int logOutSecond);
+    }
+
+    /**
+     * Passes every record within a date range to a visitor, employee by employee
+     * (in employee number order) and by date within each employee.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @param visitor   Receives each record.
+     */
+    public void scan(LocalDate startDate, LocalDate endDate, RecordVisitor visitor) {
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+        columns().forEach((employeeNumber, columns) -> {
+            int to = lowerBound(columns.epochDays, endDay + 1);
+            for (int i = lowerBound(columns.epochDays, startDay); i < to; i++) {
+                visitor.visit(employeeNumber, columns.epochDays[i], columns.logInSeconds[i],
+                        columns.logOutSeconds[i]);
+            }
+        });
+    }
+
+    /**
+     * @return The number of attendance records held.
+     */
+    public long size() {
+        long size = 0;
+        for (Columns columns : columns().values()) {
+            size += columns.epochDays.length;
+        }
+        return size;
+    }
+
+    private static AttendanceStatsDTO stats(String employeeNumber, Columns columns, LocalDate startDate,
+            LocalDate endDate) {
+        int from = lowerBound(columns.epochDays, startDate.toEpochDay());
+        int to = lowerBound(columns.epochDays, endDate.toEpochDay() + 1);
+        if (from >= to) {
+            return null;
+        }
+
+        int[] logIns = columns.logInSeconds;
+        int[] logOuts = columns.logOutSeconds;
+        long workedMinutes = 0;
+        long lateMinutes = 0;
+        long lateDays = 0;
+        long creditedCentiHours = 0;
+        for (int i = from; i < to; i++) {
+            long worked = WorkMinutes.minutesBetween(logIns[i], logOuts[i]);
+            long late = WorkMinutes.lateMinutes(logIns[i]);
+            if (WorkMinutes.isLate(logIns[i])) {
+                lateDays++;
+            }
+            workedMinutes += worked;
+            lateMinutes += late;
+            creditedCentiHours += WorkMinutes.creditedCentiHours(worked, late);
+        }
+        return new AttendanceStatsDTO(employeeNumber, workedMinutes, lateMinutes, lateDays, creditedCentiHours,
+                (long) (to - from));
+    }
+
+    // Index of the first element >= key
+    private static int lowerBound(int[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Map<String, Columns> columns() {
+        Map<String, Columns> current = columnsByEmployee;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (columnsByEmployee == null) {
+                columnsByEmployee = load();
+            }
+            return columnsByEmployee;
+        }
+    }
+
+    private synchronized void apply(Map<String, Columns> changes) {
+        Map<String, Columns> current = columnsByEmployee;
+        if (current == null) {
+            return; // not loaded yet; the load sees the committed rows
+        }
+        changes.forEach((employeeNumber, change) -> current.merge(employeeNumber, change, Columns::merge));
+    }
+
+    private Map<String, Columns> load() {
+        long started = System.currentTimeMillis();
+        Map<String, ColumnsBuilder> builders = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SCAN_SQL);
+            statement.setFetchSize(1000);
+            return statement;
+        }, resultSet -> {
+            builders.computeIfAbsent(resultSet.getString(1), key -> new ColumnsBuilder())
+                    .add((int) resultSet.getDate(2).toLocalDate().toEpochDay(),
+                            resultSet.getTime(3).toLocalTime().toSecondOfDay(),
+                            resultSet.getTime(4).toLocalTime().toSecondOfDay());
+        });
+
+        Map<String, Columns> loaded = new ConcurrentSkipListMap<>();
+        long rows = 0;
+        for (Map.Entry<String, ColumnsBuilder> entry : builders.entrySet()) {
+            Columns columns = entry.getValue().build();
+            loaded.put(entry.getKey(), columns);
+            rows += columns.epochDays.length;
+        }
+        logger.info("Attendance column store loaded: {} records of {} employees in {} ms", rows, loaded.size(),
+                System.currentTimeMillis() - started);
+        return loaded;
+    }
+
+    // Groups records per employee into sorted columns; a later record for the same date wins
+    private static Map<String, Columns> toColumns(Collection<Attendance> attendances) {
+        Map<String, Map<Integer, int[]>> byEmployee = new HashMap<>();
+        for (Attendance attendance : attendances) {
+            byEmployee.computeIfAbsent(attendance.getEmployeeNumber(), key -> new TreeMap<>())
+                    .put((int) attendance.getDate().toEpochDay(), new int[] {
+                            attendance.getLogIn().toSecondOfDay(), attendance.getLogOut().toSecondOfDay() });
+        }
+        Map<String, Columns> changes = new HashMap<>();
+        byEmployee.forEach((employeeNumber, days) -> {
+            ColumnsBuilder builder = new ColumnsBuilder();
+            days.forEach((epochDay, times) -> builder.add(epochDay, times[0], times[1]));
+            changes.put(employeeNumber, builder.build());
+        });
+        return changes;
+    }
+
+    private static final class ColumnsBuilder {
+
+        private int[] epochDays = new int[64];
+        private int[] logInSeconds = new int[64];
+        private int[] logOutSeconds = new int[64];
+        private int size;
+
+        void add(int epochDay, int logInSecond, int logOutSecond) {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                logInSeconds = Arrays.copyOf(logInSeconds, size * 2);
+                logOutSeconds = Arrays.copyOf(logOutSeconds, size * 2);
+            }
+            epochDays[size] = epochDay;
+            logInSeconds[size] = logInSecond;
+            logOutSeconds[size++] = logOutSecond;
+        }
+
+        Columns build() {
+            return new Columns(Arrays.copyOf(epochDays, size), Arrays.copyOf(logInSeconds, size),
+                    Arrays.copyOf(logOutSeconds, size));
+        }
+    }
+}
@@ -0,0 +1,300 @@
+// AttendanceImportService.java
+package com.imperionite.cp2a.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imperionite.cp2a.dtos.AttendanceImportErrorDTO;
+import com.imperionite.cp2a.dtos.AttendanceImportResultDTO;
+import com.imperionite.cp2a.dtos.EmployeeBasicInfoDTO;
+import com.imperionite.cp2a.entities.Attendance;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+/**
+ * Streams attendance uploads in the {@code attendance_records.csv} format
+ * (EmployeeNumber, LastName, FirstName, Date, LogIn, LogOut) as CSV or as
+ * NDJSON (one JSON object per line with the same field names).
+ *
+ * Rows are read one at a time, validated, resolved against an in-memory map of
+ * employee numbers loaded once per import, and written in chunks with
+ * {@link AttendanceBatchWriter}. Each chunk is committed in its own
+ * transaction, so a failed chunk is reported without undoing the others.
+ * Invalid rows are skipped and reported with their line number; employee names
+ * are taken from the employee records. A row for an employee and day that
+ * already exists replaces it.
+ */
+@Service
+public class AttendanceImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceImportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    /** Only the first errors are returned in the report; the rest are counted. */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    static final String[] HEADERS = { "EmployeeNumber", "LastName", "FirstName", "Date", "LogIn", "LogOut" };
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceBatchWriter attendanceBatchWriter;
+
+    @Autowired
+    private CutoffCalendar cutoffCalendar;
+
+    @Autowired
+    private AttendanceColumnStore attendanceColumnStore;
+
+    @Autowired
+    private AttendanceAnomalyDetector attendanceAnomalyDetector;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${attendance.import.batch-size:5000}")
+    private int batchSize;
+
+    /**
+     * Imports a CSV upload whose first line is the header.
+     *
+     * @param input The upload; read once and not closed.
+     * @return The import report.
+     * @throws IOException If the upload cannot be read.
+     */
+    public AttendanceImportResultDTO importCsv(InputStream input) throws IOException {
+        ImportRun run = new ImportRun(FORMAT_CSV);
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        Iterable<CSVRecord> records = CSVFormat.Builder.create()
+                .setHeader(HEADERS)
+                .setSkipHeaderRecord(true)
+                .build()
+                .parse(reader);
+
+        for (CSVRecord record : records) {
+            long line = record.getRecordNumber() + 1; // the header is line 1
+            if (!record.isConsistent()) {
+                run.rejectRow(line, record.size() > 0 ? record.get(0) : null,
+                        "Expected " + HEADERS.length + " columns but found " + record.size() + ".");
+                continue;
+            }
+            run.accept(line, record.get("EmployeeNumber"), record.get("Date"), record.get("LogIn"),
+                    record.get("LogOut"));
+        }
+        return run.finish();
+    }
+
+    /**
+     * Imports an NDJSON upload, one JSON object per line. Blank lines are
+     * ignored.
+     *
+     * @param input The upload; read once and not closed.
+     * @return The import report.
+     * @throws IOException If the upload cannot be read.
+     */
+    public AttendanceImportResultDTO importNdjson(InputStream input) throws IOException {
+        ImportRun run = new ImportRun(FORMAT_NDJSON);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            Map<String, Object> fields;
+            try {
+                fields = objectMapper.readValue(text, new TypeReference<Map<String, Object>>() {
+                });
+            } catch (JsonProcessingException e) {
+                run.rejectRow(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(line, field(fields, "EmployeeNumber"), field(fields, "Date"), field(fields, "LogIn"),
+                    field(fields, "LogOut"));
+        }
+        return run.finish();
+    }
+
+    private static String field(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * State of one import: the employee map, the pending chunk and the report.
+     */
+    private class ImportRun {
+
+        private final long startedAt = System.currentTimeMillis();
+        private final Map<String, EmployeeBasicInfoDTO> employees = new HashMap<>();
+        private final List<Attendance> chunk = new ArrayList<>(batchSize);
+        private final AttendanceImportResultDTO result = new AttendanceImportResultDTO();
+        private long chunkFirstLine;
+        private long chunkLastLine;
+        private LocalDate chunkMinDate;
+        private LocalDate chunkMaxDate;
+
+        ImportRun(String format) {
+            result.setFormat(format);
+            for (EmployeeBasicInfoDTO employee : employeeRepository.findAllBasicInfo()) {
+                employees.put(employee.getEmployeeNumber(), employee);
+            }
+        }
+
+        void accept(long line, String employeeNumber, String date, String logIn, String logOut) {
+            result.setRowsRead(result.getRowsRead() + 1);
+
+            String number = clean(employeeNumber);
+            if (number.isEmpty()) {
+                reject(line, null, "Missing EmployeeNumber.");
+                return;
+            }
+            EmployeeBasicInfoDTO employee = employees.get(number);
+            if (employee == null) {
+                reject(line, number, "Employee not found.");
+                return;
+            }
+
+            LocalDate parsedDate;
+            LocalTime parsedLogIn;
+            LocalTime parsedLogOut;
+            try {
+                parsedDate = LocalDate.parse(clean(date), DATE_FORMAT);
+            } catch (DateTimeParseException e) {
+                reject(line, number, "Invalid Date '" + clean(date) + "'. Use MM/dd/yyyy.");
+                return;
+            }
+            try {
+                parsedLogIn = LocalTime.parse(clean(logIn));
+                parsedLogOut = LocalTime.parse(clean(logOut));
+            } catch (DateTimeParseException e) {
+                reject(line, number, "Invalid LogIn/LogOut time. Use HH:mm.");
+                return;
+            }
+            if (!parsedLogOut.isAfter(parsedLogIn)) {
+                reject(line, number, "LogOut must be after LogIn.");
+                return;
+            }
+
+            Attendance attendance = new Attendance();
+            attendance.setEmployeeNumber(number);
+            attendance.setLastName(employee.getLastName());
+            attendance.setFirstName(employee.getFirstName());
+            attendance.setDate(parsedDate);
+            attendance.setLogIn(parsedLogIn);
+            attendance.setLogOut(parsedLogOut);
+            add(line, attendance);
+        }
+
+        void rejectRow(long line, String employeeNumber, String message) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            reject(line, employeeNumber, message);
+        }
+
+        void reject(long line, String employeeNumber, String message) {
+            result.setRowsRejected(result.getRowsRejected() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new AttendanceImportErrorDTO(line, employeeNumber, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+
+        private void add(long line, Attendance attendance) {
+            if (chunk.isEmpty()) {
+                chunkFirstLine = line;
+                chunkMinDate = attendance.getDate();
+                chunkMaxDate = attendance.getDate();
+            } else {
+                if (attendance.getDate().isBefore(chunkMinDate)) {
+                    chunkMinDate = attendance.getDate();
+                }
+                if (attendance.getDate().isAfter(chunkMaxDate)) {
+                    chunkMaxDate = attendance.getDate();
+                }
+            }
+            chunk.add(attendance);
+            chunkLastLine = line;
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    attendanceBatchWriter.upsert(chunk);
+                    cutoffCalendar.recordDates(chunkMinDate, chunkMaxDate);
+                    attendanceColumnStore.record(chunk);
+                    attendanceAnomalyDetector.inspect(chunk);
+                    dataVersionTracker.recordChange(DataVersionTracker.Dataset.ATTENDANCE);
+                });
+                result.setRowsImported(result.getRowsImported() + chunk.size());
+            } catch (RuntimeException e) {
+                logger.error("Attendance import batch at lines {}-{} failed: {}", chunkFirstLine, chunkLastLine,
+                        e.getMessage(), e);
+                result.setRowsRejected(result.getRowsRejected() + chunk.size() - 1);
+                reject(chunkFirstLine, null, "Batch of " + chunk.size() + " rows (lines " + chunkFirstLine + "-"
+                        + chunkLastLine + ") was not saved: " + e.getMessage());
+            }
+            chunk.clear();
+        }
+
+        AttendanceImportResultDTO finish() {
+            flush();
+            result.setDurationMillis(System.currentTimeMillis() - startedAt);
+            logger.info("Attendance {} import: {} rows read, {} imported, {} rejected in {} ms", result.getFormat(),
+                    result.getRowsRead(), result.getRowsImported(), result.getRowsRejected(),
+                    result.getDurationMillis());
+            return result;
+        }
+    }
+
+    /**
+     * Trims a field and strips non-breaking spaces and byte order marks that
+     * spreadsheet exports leave behind.
+     */
+    private static String clean(String value) {
+        return value == null ? "" : value.replace("\u00A0", "").replace("\uFEFF", "").trim();
+    }
+}
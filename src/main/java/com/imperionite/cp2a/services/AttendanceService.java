@@ -2,20 +2,27 @@
 package com.imperionite.cp2a.services;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
-import java.math.RoundingMode;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.time.YearMonth; // Import YearMonth
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.imperionite.cp2a.dtos.AttendancePageDTO;
 import com.imperionite.cp2a.dtos.WeeklyCutoffDTO;
 import com.imperionite.cp2a.dtos.MonthlyCutoffDTO;
 import com.imperionite.cp2a.entities.Attendance;
@@ -26,19 +33,59 @@ public class AttendanceService {
 
     private static final Logger logger = LoggerFactory.getLogger(AttendanceService.class);
 
+    /** Largest page served by {@link #getAttendancePage}. */
+    public static final int MAX_PAGE_SIZE = 5000;
+
     @Autowired
     private AttendanceRepository attendanceRepository;
 
+    @Autowired
+    private CutoffCalendar cutoffCalendar;
+
+    @Autowired
+    private AttendanceWriteBehindBuffer attendanceWriteBehindBuffer;
+
+    @Autowired
+    private AttendanceColumnStore attendanceColumnStore;
+
+    @Autowired
+    private AttendanceAnomalyDetector attendanceAnomalyDetector;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
-     * Saves a new attendance record.
+     * Saves an attendance record. An existing record for the same employee and
+     * date is overwritten.
      *
      * @param attendance The Attendance entity to be saved.
      */
+    @Transactional
     public void saveAttendance(Attendance attendance) {
-        attendanceRepository.save(attendance);
+        attendanceRepository.upsert(attendance);
+        cutoffCalendar.recordDates(attendance.getDate(), attendance.getDate());
+        attendanceColumnStore.record(List.of(attendance));
+        attendanceAnomalyDetector.inspect(List.of(attendance));
+        dataVersionTracker.recordChange(DataVersionTracker.Dataset.ATTENDANCE);
         logger.debug("Attendance record saved: {}", attendance);
     }
 
+    /**
+     * Hands an attendance record to the write-behind buffer when that mode is
+     * enabled ({@code attendance.write-behind.enabled}). The record is journaled
+     * to disk before this returns and written to the database in a later batch.
+     *
+     * @param attendance The Attendance entity to be saved.
+     * @return True if the record was queued; false if the caller must save it
+     *         with {@link #saveAttendance(Attendance)} (mode off or queue full).
+     */
+    public boolean enqueueAttendance(Attendance attendance) {
+        return attendanceWriteBehindBuffer.isRunning() && attendanceWriteBehindBuffer.offer(attendance);
+    }
+
     /**
      * Retrieves attendance records for a specific employee within a date range.
      *
@@ -65,6 +112,89 @@ public List<Attendance> getAttendanceByDateRange(LocalDate startDate, LocalDate
         return attendanceRepository.findByDateBetween(startDate, endDate);
     }
 
+    /**
+     * Retrieves one keyset page of attendance records for all employees within a
+     * date range, ordered by date and id. Each page costs one index range scan,
+     * however deep into the range it is.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @param cursor    The next cursor of the previous page, or null for the
+     *                  first page.
+     * @param limit     The page size, between 1 and {@link #MAX_PAGE_SIZE}.
+     * @return The page and the cursor of the next one (null on the last page).
+     * @throws IllegalArgumentException If the cursor or limit is invalid.
+     */
+    public AttendancePageDTO getAttendancePage(LocalDate startDate, LocalDate endDate, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        LocalDate afterDate = startDate.minusDays(1); // before every row of the range
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterDate = LocalDate.parse(position[0]);
+            afterId = Long.parseLong(position[1]);
+        }
+
+        // One extra row tells whether another page follows
+        List<Attendance> rows = attendanceRepository.findPageByDateRange(startDate, endDate, afterDate, afterId,
+                Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new AttendancePageDTO(rows, null);
+        }
+        List<Attendance> page = rows.subList(0, limit);
+        Attendance last = page.get(limit - 1);
+        return new AttendancePageDTO(page, encodeCursor(last.getDate(), last.getId()));
+    }
+
+    /**
+     * Passes every attendance record within a date range, in date and id order,
+     * to a consumer without holding the range in memory: rows come from a
+     * database cursor and are detached once consumed.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @param consumer  Receives each record.
+     * @return The number of records streamed.
+     */
+    @Transactional(readOnly = true)
+    public long streamAttendanceByDateRange(LocalDate startDate, LocalDate endDate, Consumer<Attendance> consumer) {
+        long count = 0;
+        try (Stream<Attendance> attendances = attendanceRepository.streamByDateRange(startDate, endDate)) {
+            Iterator<Attendance> iterator = attendances.iterator();
+            while (iterator.hasNext()) {
+                Attendance attendance = iterator.next();
+                consumer.accept(attendance);
+                entityManager.detach(attendance);
+                count++;
+            }
+        }
+        logger.debug("Streamed {} attendance records between {} and {}", count, startDate, endDate);
+        return count;
+    }
+
+    // Cursors are the base64url of "date:id" of the last row of a page
+    static String encodeCursor(LocalDate date, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + ":" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII)
+                    .split(":");
+            if (position.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDate.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
     /**
      * Calculates the total work hours for a specific employee within a given week,
      * considering a 10-minute grace period for late login.
@@ -75,55 +205,15 @@ public List<Attendance> getAttendanceByDateRange(LocalDate startDate, LocalDate
      * * @param employeeNumber The employee number.
      * 
      * @param startDate The start date (Monday) of the week.
-     * @param endDate   The end date (Sunday) of the week.
+     * @param endDate   The end date (Sunday) of the week; a clipped week such as
+     *                  the last weekly cut-off may end earlier.
      * @return The total worked hours in BigDecimal format, including deductions for
      *         late login.
-     * @throws IllegalArgumentException If the provided dates are not a valid
+     * @throws IllegalArgumentException If the provided dates are not within one
      *                                  Monday-Sunday week.
      */
     public BigDecimal calculateWeeklyHours(String employeeNumber, LocalDate startDate, LocalDate endDate) {
-        // Validate that the week is Monday to Sunday
-        if (!startDate.getDayOfWeek().equals(DayOfWeek.MONDAY) || !endDate.getDayOfWeek().equals(DayOfWeek.SUNDAY)) {
-            throw new IllegalArgumentException("Start date must be a Monday and end date must be a Sunday.");
-        }
-
-        // Fetch attendance records for the given week
-        List<Attendance> attendances = attendanceRepository.findAttendancesForWeek(employeeNumber, startDate, endDate);
-
-        // Initialize total worked hours (in BigDecimal)
-        BigDecimal totalWorkedHours = BigDecimal.ZERO;
-
-        // Define the grace period end time (8:10 AM)
-        LocalTime gracePeriodEndTime = LocalTime.of(8, 10); // 8:10 AM
-
-        // Iterate over the attendance records and calculate the worked hours
-        for (Attendance attendance : attendances) {
-            // Calculate the total worked minutes (logOut - logIn)
-            long minutesWorked = ChronoUnit.MINUTES.between(attendance.getLogIn(), attendance.getLogOut());
-            BigDecimal workedHours = new BigDecimal(minutesWorked).divide(BigDecimal.valueOf(60), 2,
-                    RoundingMode.HALF_UP);
-
-            // Extract the login time (logIn is already a LocalTime, so no need to use
-            // toLocalTime())
-            LocalTime loginTime = attendance.getLogIn();
-
-            // Check if the employee logged in after the grace period (8:10 AM)
-            if (loginTime.isAfter(gracePeriodEndTime)) {
-                // Calculate how many minutes the employee was late
-                long minutesLate = ChronoUnit.MINUTES.between(gracePeriodEndTime, loginTime);
-
-                // Calculate deduction: Deduct the late minutes from the total worked hours
-                BigDecimal deduction = new BigDecimal(minutesLate).divide(BigDecimal.valueOf(60), 2,
-                        RoundingMode.HALF_UP);
-                workedHours = workedHours.subtract(deduction);
-            }
-
-            // Accumulate the total worked hours for the week
-            totalWorkedHours = totalWorkedHours.add(workedHours);
-        }
-
-        // Return the total worked hours for the week, including any deductions
-        return totalWorkedHours.setScale(2, RoundingMode.HALF_UP);
+        return calculateHours(employeeNumber, PayPeriod.weekly(startDate, endDate));
     }
 
     /**
@@ -138,125 +228,56 @@ public BigDecimal calculateWeeklyHours(String employeeNumber, LocalDate startDat
      * @param yearMonth The month and year for which to calculate hours.
      * @return The total worked hours in BigDecimal format, including deductions for
      *         late login.
-     * @throws IllegalArgumentException If the provided dates are not a valid
-     *                                  Monday-Sunday week.
      */
     public BigDecimal calculateMonthlyHours(String employeeNumber, YearMonth yearMonth) {
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
-
-        // Fetch attendance records for the given month
-        List<Attendance> attendances = attendanceRepository.findByEmployeeNumberAndDateBetween(employeeNumber,
-                startDate, endDate);
-
-        // Initialize total worked hours (in BigDecimal)
-        BigDecimal totalWorkedHours = BigDecimal.ZERO;
-
-        // Define the grace period end time (8:10 AM)
-        LocalTime gracePeriodEndTime = LocalTime.of(8, 10); // 8:10 AM
-
-        // Iterate over the attendance records and calculate the worked hours
-        for (Attendance attendance : attendances) {
-            // Calculate the total worked minutes (logOut - logIn)
-            long minutesWorked = ChronoUnit.MINUTES.between(attendance.getLogIn(), attendance.getLogOut());
-            BigDecimal workedHours = new BigDecimal(minutesWorked).divide(BigDecimal.valueOf(60), 2,
-                    RoundingMode.HALF_UP);
-
-            // Extract the login time (logIn is already a LocalTime, so no need to use
-            // toLocalTime())
-            LocalTime loginTime = attendance.getLogIn();
-
-            // Check if the employee logged in after the grace period (8:10 AM)
-            if (loginTime.isAfter(gracePeriodEndTime)) {
-                // Calculate how many minutes the employee was late
-                long minutesLate = ChronoUnit.MINUTES.between(gracePeriodEndTime, loginTime);
-
-                // Calculate deduction: Deduct the late minutes from the total worked hours
-                BigDecimal deduction = new BigDecimal(minutesLate).divide(BigDecimal.valueOf(60), 2,
-                        RoundingMode.HALF_UP);
-                workedHours = workedHours.subtract(deduction);
-            }
+        return calculateHours(employeeNumber, PayPeriod.monthly(yearMonth));
+    }
 
-            // Accumulate the total worked hours for the week
-            totalWorkedHours = totalWorkedHours.add(workedHours);
-        }
+    /**
+     * Calculates the total work hours of an employee for any pay period (weekly,
+     * semi-monthly, monthly or custom), with the same grace period rule as
+     * {@link #calculateWeeklyHours}.
+     *
+     * @param employeeNumber The employee number.
+     * @param period         The pay period.
+     * @return The total worked hours, including deductions for late login.
+     */
+    public BigDecimal calculateHours(String employeeNumber, PayPeriod period) {
+        return WorkMinutes.toHours(getDailySeries(employeeNumber).getCreditedCentiHours(period));
+    }
 
-        // Return the total worked hours for the month, including any deductions
-        return totalWorkedHours.setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Returns the daily work series of an employee, from which the hours of any
+     * period are read without a query.
+     *
+     * @param employeeNumber The employee number.
+     * @return The series; empty when the employee has no attendance.
+     */
+    public DailyWorkSeries getDailySeries(String employeeNumber) {
+        return attendanceColumnStore.getDailySeries(employeeNumber);
     }
 
     /**
-     * Retrieves the available weekly cut-offs (start and end dates).
-     * This method queries the database for the minimum and maximum attendance dates
-     * and generates a list of weekly cut-off periods between those dates.
+     * Retrieves the available weekly cut-offs (start and end dates), served from
+     * the in-memory {@link CutoffCalendar}.
      *
      * @return A list of {@link WeeklyCutoffDTO} objects, each representing a week
      *         with its start and end dates. Returns an empty list if no
      *         attendance records exist.
      */
     public List<WeeklyCutoffDTO> getWeeklyCutoffs() {
-        LocalDate minDate = attendanceRepository.findMinDate();
-        LocalDate maxDate = attendanceRepository.findMaxDate();
-
-        if (minDate == null || maxDate == null) {
-            return new ArrayList<>(); // Return empty list if no attendance records exist
-        }
-
-        List<WeeklyCutoffDTO> weeklyCutoffs = new ArrayList<>();
-        LocalDate currentDate = minDate.with(DayOfWeek.MONDAY); // Start from the first Monday
-
-        while (currentDate.isBefore(maxDate) || currentDate.isEqual(maxDate)) {
-            LocalDate endDate = currentDate.with(DayOfWeek.SUNDAY);
-            if (endDate.isAfter(maxDate)) {
-                endDate = maxDate; // Adjust end date if it goes beyond maxDate
-            }
-            weeklyCutoffs.add(new WeeklyCutoffDTO(currentDate, endDate));
-            currentDate = currentDate.plusWeeks(1);
-        }
-
-        return weeklyCutoffs;
+        return cutoffCalendar.getSnapshot().getWeeklyCutoffs();
     }
 
     /**
      * Retrieves the available monthly cut-offs (YearMonth, start date, and end
-     * date).
-     * This method queries the database for the minimum and maximum attendance dates
-     * and generates a list of monthly cut-off periods between those dates.
+     * date), served from the in-memory {@link CutoffCalendar}.
      *
      * @return A list of {@link MonthlyCutoffDTO} objects, each representing a month
      *         with its YearMonth, start date, and end dates. Returns an empty list
-     *         if no
-     *         attendance records exist.
+     *         if no attendance records exist.
      */
     public List<MonthlyCutoffDTO> getMonthlyCutoffs() {
-        LocalDate minDate = attendanceRepository.findMinDate();
-        LocalDate maxDate = attendanceRepository.findMaxDate();
-
-        if (minDate == null || maxDate == null) {
-            return new ArrayList<>(); // Return empty list if no attendance records exist
-        }
-
-        List<MonthlyCutoffDTO> monthlyCutoffs = new ArrayList<>();
-        YearMonth currentMonth = YearMonth.from(minDate);
-
-        // Loop through months from minDate to maxDate
-        while (!currentMonth.isAfter(YearMonth.from(maxDate))) {
-            LocalDate monthStartDate = currentMonth.atDay(1);
-            LocalDate monthEndDate = currentMonth.atEndOfMonth();
-
-            // Adjust the start/end dates if they fall outside the actual min/max attendance
-            // dates
-            if (monthStartDate.isBefore(minDate)) {
-                monthStartDate = minDate;
-            }
-            if (monthEndDate.isAfter(maxDate)) {
-                monthEndDate = maxDate;
-            }
-
-            monthlyCutoffs.add(new MonthlyCutoffDTO(currentMonth, monthStartDate, monthEndDate));
-            currentMonth = currentMonth.plusMonths(1);
-        }
-
-        return monthlyCutoffs;
+        return cutoffCalendar.getSnapshot().getMonthlyCutoffs();
     }
 }
\ No newline at end of file
@@ -0,0 +1,425 @@
+// AttendanceWriteBehindBuffer.java
+package com.imperionite.cp2a.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imperionite.cp2a.entities.Attendance;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional write-behind path for clock-in events
+ * ({@code attendance.write-behind.enabled}).
+ *
+ * An accepted record is appended to a local journal file (one JSON object per
+ * line, forced to disk) and put on a bounded in-memory queue. A background
+ * thread drains the queue and writes the records with
+ * {@link AttendanceBatchWriter}, one transaction per batch. The journal is
+ * truncated whenever everything it holds has been written, and replayed on
+ * startup, so records accepted before a crash are not lost. Writes are upserts on (employee_number, date), so replaying a record
+ * that was already written is harmless.
+ *
+ * A batch that fails is retried every {@code attendance.write-behind.retry-delay-ms},
+ * without limit while the database is unreachable and otherwise up to
+ * {@code attendance.write-behind.max-attempts} times. Its records are then
+ * written one at a time and those that still fail are appended to the
+ * dead-letter file ({@code attendance.write-behind.dead-letter}) in the NDJSON
+ * format of {@code POST /api/attendance/admin/import}, so one bad record never
+ * stops the queue.
+ *
+ * When the mode is off, not yet started, or the queue is full,
+ * {@link #offer(Attendance)} returns false and the caller writes synchronously.
+ */
+@Component
+public class AttendanceWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceWriteBehindBuffer.class);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    @Autowired
+    private AttendanceBatchWriter attendanceBatchWriter;
+
+    @Autowired
+    private CutoffCalendar cutoffCalendar;
+
+    @Autowired
+    private AttendanceColumnStore attendanceColumnStore;
+
+    @Autowired
+    private AttendanceAnomalyDetector attendanceAnomalyDetector;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${attendance.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${attendance.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${attendance.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${attendance.write-behind.max-delay-ms:200}")
+    private long maxDelayMillis;
+
+    @Value("${attendance.write-behind.journal:data/attendance-write-behind.journal}")
+    private String journalPath;
+
+    @Value("${attendance.write-behind.dead-letter:data/attendance-write-behind.dead-letter}")
+    private String deadLetterPath;
+
+    @Value("${attendance.write-behind.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${attendance.write-behind.retry-delay-ms:5000}")
+    private long retryDelayMillis;
+
+    private BlockingQueue<Attendance> queue;
+    private FileChannel journal;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // Records taken off the queue but not yet committed; guarded by this
+    private int inFlight;
+
+    /**
+     * Replays the journal left by a previous run, then starts the flusher.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (!enabled || running) {
+            return;
+        }
+        Path path = Paths.get(journalPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        replay(path);
+
+        queue = new ArrayBlockingQueue<>(capacity);
+        journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        running = true;
+        flusher = new Thread(this::runFlusher, "attendance-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Attendance write-behind started (capacity {}, batch size {}, journal {})", capacity,
+                batchSize, path.toAbsolutePath());
+    }
+
+    /**
+     * Stops accepting records and writes whatever is still queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Could not close attendance journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Journals and queues a record for a later batched write.
+     *
+     * @param attendance The record to write.
+     * @return True when the record was accepted; false when write-behind is off,
+     *         not started or full, or the journal cannot be written, in which
+     *         case nothing was recorded and the caller must write it itself.
+     */
+    public synchronized boolean offer(Attendance attendance) {
+        if (!running || queue.remainingCapacity() == 0) {
+            return false;
+        }
+        try {
+            byte[] line = (objectMapper.writeValueAsString(attendance) + "\n").getBytes(StandardCharsets.UTF_8);
+            journal.write(ByteBuffer.wrap(line));
+            journal.force(false);
+        } catch (IOException e) {
+            logger.error("Could not journal attendance record, writing it synchronously: {}", e.getMessage());
+            return false;
+        }
+        queue.add(attendance);
+        return true;
+    }
+
+    /**
+     * @return True when write-behind is enabled and running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return The number of accepted records not yet written.
+     */
+    public synchronized int getPendingCount() {
+        return queue == null ? 0 : queue.size() + inFlight;
+    }
+
+    private void runFlusher() {
+        List<Attendance> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Attendance first = queue.poll(maxDelayMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                synchronized (this) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    inFlight = batch.size();
+                }
+            } catch (InterruptedException e) {
+                if (queue.isEmpty()) {
+                    break;
+                }
+                continue; // shutting down; drain what is left
+            }
+
+            if (!writeWithRetries(batch)) {
+                logger.error("Stopping with {} attendance records unwritten; they remain in the journal.",
+                        batch.size() + queue.size());
+                return;
+            }
+            batch.clear();
+            completed();
+        }
+    }
+
+    // Marks the in-flight batch written and empties the journal when nothing else is pending
+    private synchronized void completed() {
+        inFlight = 0;
+        if (queue.isEmpty()) {
+            try {
+                journal.truncate(0);
+            } catch (IOException e) {
+                logger.warn("Could not truncate attendance journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, retrying as described on the class. Records that cannot be
+     * written on their own are dead-lettered.
+     *
+     * @return True when every record was written or dead-lettered; false when
+     *         shutting down while the batch still fails.
+     */
+    private boolean writeWithRetries(List<Attendance> batch) {
+        int attempts = 0;
+        while (true) {
+            try {
+                write(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (!isUnavailable(e) && ++attempts >= maxAttempts) {
+                    logger.error("Writing {} queued attendance records failed {} times, "
+                            + "writing them one at a time: {}", batch.size(), attempts, e.getMessage(), e);
+                    writeEach(batch);
+                    return true;
+                }
+                logger.error("Writing {} queued attendance records failed, will retry: {}", batch.size(),
+                        e.getMessage(), e);
+            }
+            if (!running) {
+                return false;
+            }
+            try {
+                Thread.sleep(retryDelayMillis);
+            } catch (InterruptedException e) {
+                // shutting down; one more attempt is made
+            }
+        }
+    }
+
+    /**
+     * Writes one batch in one transaction.
+     *
+     * @throws RuntimeException If the transaction did not commit.
+     */
+    private void write(List<Attendance> batch) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            attendanceBatchWriter.upsert(batch);
+
+            LocalDate minDate = batch.get(0).getDate();
+            LocalDate maxDate = minDate;
+            for (Attendance attendance : batch) {
+                if (attendance.getDate().isBefore(minDate)) {
+                    minDate = attendance.getDate();
+                }
+                if (attendance.getDate().isAfter(maxDate)) {
+                    maxDate = attendance.getDate();
+                }
+            }
+            cutoffCalendar.recordDates(minDate, maxDate);
+            attendanceColumnStore.record(batch);
+            attendanceAnomalyDetector.inspect(batch);
+            dataVersionTracker.recordChange(DataVersionTracker.Dataset.ATTENDANCE);
+        });
+        logger.debug("Wrote {} queued attendance records", batch.size());
+    }
+
+    // Writes each record in its own transaction; the ones that fail go to the dead-letter file
+    private void writeEach(List<Attendance> batch) {
+        int deadLettered = 0;
+        for (Attendance attendance : batch) {
+            try {
+                write(List.of(attendance));
+            } catch (RuntimeException e) {
+                deadLetter(attendance, e);
+                deadLettered++;
+            }
+        }
+        if (deadLettered > 0) {
+            logger.error("{} of {} attendance records could not be written and were moved to {}", deadLettered,
+                    batch.size(), Paths.get(deadLetterPath).toAbsolutePath());
+        }
+    }
+
+    /**
+     * Appends a record that cannot be written to the dead-letter file, as an
+     * NDJSON import line with the error added. If even that fails the line is
+     * logged, so the record can still be recovered.
+     */
+    private void deadLetter(Attendance attendance, RuntimeException cause) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("EmployeeNumber", attendance.getEmployeeNumber());
+        entry.put("LastName", attendance.getLastName());
+        entry.put("FirstName", attendance.getFirstName());
+        entry.put("Date", attendance.getDate() == null ? null : attendance.getDate().format(DATE_FORMAT));
+        entry.put("LogIn", attendance.getLogIn() == null ? null : attendance.getLogIn().toString());
+        entry.put("LogOut", attendance.getLogOut() == null ? null : attendance.getLogOut().toString());
+        entry.put("Error", cause.getMessage());
+        String line;
+        try {
+            line = objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            line = entry.toString();
+        }
+        Path path = Paths.get(deadLetterPath);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            logger.error("Dead-lettered attendance record {}: {}", line, cause.getMessage());
+        } catch (IOException e) {
+            logger.error("Could not dead-letter attendance record {} ({}): {}", line, cause.getMessage(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * @return True when a failure means the database cannot be reached, so
+     *         retrying later may succeed and the records are not at fault.
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof CannotCreateTransactionException || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException || e instanceof DataAccessResourceFailureException;
+    }
+
+    /**
+     * Writes the records left in the journal by a previous run and empties it.
+     */
+    private void replay(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return;
+        }
+        List<Attendance> batch = new ArrayList<>(batchSize);
+        int replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, Attendance.class));
+                } catch (JsonProcessingException e) {
+                    // A record cut short by the crash was never acknowledged
+                    logger.warn("Skipping unreadable attendance journal entry: {}", e.getOriginalMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    replayed += replayBatch(batch);
+                }
+            }
+        }
+        replayed += replayBatch(batch);
+        Files.write(path, new byte[0]);
+        logger.info("Replayed {} attendance records from the write-behind journal.", replayed);
+    }
+
+    private int replayBatch(List<Attendance> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                throw new IOException("Could not replay the attendance journal; it is kept for the next start.", e);
+            }
+            logger.error("Replaying {} attendance records failed, writing them one at a time: {}", batch.size(),
+                    e.getMessage(), e);
+            writeEach(batch);
+        }
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+}
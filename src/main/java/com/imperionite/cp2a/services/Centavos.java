@@ -0,0 +1,89 @@
+// Centavos.java
+package com.imperionite.cp2a.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on {@code long} centavos (1 peso = 100).
+ *
+ * Payroll amounts are carried as centavos through the hot paths of the
+ * attendance, salary and deduction services and only turned into
+ * {@link BigDecimal} at the API boundary. Rates are carried as {@code long}
+ * millionths ({@link #RATE_SCALE}). All rounding is half-up (away from zero),
+ * matching {@link RoundingMode#HALF_UP}.
+ */
+public final class Centavos {
+
+    /** Number of decimal places of a centavo amount. */
+    public static final int SCALE = 2;
+
+    /** Number of decimal places of a rate (e.g. 0.02 is 20,000 millionths). */
+    public static final int RATE_SCALE = 6;
+
+    /** A rate of 1 (100%) in millionths. */
+    public static final long RATE_ONE = 1_000_000L;
+
+    private Centavos() {
+    }
+
+    /**
+     * Converts an amount to centavos, rounding half-up to the nearest centavo.
+     *
+     * @param amount The amount in pesos.
+     * @return The amount in centavos.
+     * @throws ArithmeticException If the amount does not fit in a long.
+     */
+    public static long of(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a rate to millionths.
+     *
+     * @param rate The rate (e.g. 0.25).
+     * @return The rate in millionths.
+     * @throws ArithmeticException If the rate has more than six decimal places.
+     */
+    public static long rateOf(BigDecimal rate) {
+        return rate.setScale(RATE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts centavos back to a peso amount with two decimal places.
+     *
+     * @param centavos The amount in centavos.
+     * @return The amount in pesos.
+     */
+    public static BigDecimal toBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, SCALE);
+    }
+
+    /**
+     * Multiplies an amount by a rate, rounding half-up to the centavo.
+     *
+     * @param centavos The amount in centavos.
+     * @param rate     The rate in millionths.
+     * @return The product in centavos.
+     * @throws ArithmeticException If the product overflows.
+     */
+    public static long multiplyByRate(long centavos, long rate) {
+        return divideHalfUp(Math.multiplyExact(centavos, rate), RATE_ONE);
+    }
+
+    /**
+     * Divides with half-up rounding (ties away from zero).
+     *
+     * @param dividend The dividend.
+     * @param divisor  The divisor; must be positive.
+     * @return The rounded quotient.
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,138 @@
+// ContributionTable.java
+package com.imperionite.cp2a.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable, compiled form of one contribution table from
+ * {@code contributions.json} (SSS, PhilHealth or Pag-IBIG).
+ *
+ * Salary caps are kept as a sorted {@code long[]} of centavos and looked up with
+ * a binary search, so a lookup is O(log n) and does not allocate. The bracket
+ * values are fixed-point longs with the table's value scale: centavos for a
+ * fixed contribution (scale 2) or millionths for a rate (scale 6), see
+ * {@link Centavos}.
+ */
+public final class ContributionTable {
+
+    /**
+     * The top bracket must reach at least this monthly salary (in pesos). The
+     * JSON uses 999,999,999 as its open-ended last bracket.
+     */
+    static final long MIN_TOP_SALARY_CAP = 1_000_000L;
+
+    private final String name;
+    private final long[] salaryCapsInCents;
+    private final long[] values;
+
+    private ContributionTable(String name, long[] salaryCapsInCents, long[] values) {
+        this.name = name;
+        this.salaryCapsInCents = salaryCapsInCents;
+        this.values = values;
+    }
+
+    /**
+     * Compiles and validates a list of brackets. Brackets must be non-empty, have
+     * strictly ascending salary caps with at most two decimal places, carry a
+     * non-negative value with at most {@code valueScale} decimal places, and the
+     * last cap must cover {@link #MIN_TOP_SALARY_CAP}.
+     *
+     * @param name       The table name, used in error messages (e.g. "SSS").
+     * @param brackets   The brackets in ascending salary cap order.
+     * @param salaryCap  Extracts a bracket's salary cap.
+     * @param value      Extracts a bracket's contribution or rate.
+     * @param valueScale The decimal places the values are stored with (e.g.
+     *                   {@link Centavos#SCALE} or {@link Centavos#RATE_SCALE}).
+     * @return The compiled table.
+     * @throws IllegalStateException If the brackets are missing, unordered or do
+     *                               not cover the supported salary range.
+     */
+    public static <T> ContributionTable compile(String name, List<T> brackets, Function<T, BigDecimal> salaryCap,
+            Function<T, BigDecimal> value, int valueScale) {
+        if (brackets == null || brackets.isEmpty()) {
+            throw new IllegalStateException(name + " contribution table is empty.");
+        }
+
+        long[] caps = new long[brackets.size()];
+        long[] values = new long[brackets.size()];
+        for (int i = 0; i < brackets.size(); i++) {
+            T bracket = brackets.get(i);
+            BigDecimal cap = salaryCap.apply(bracket);
+            BigDecimal bracketValue = value.apply(bracket);
+
+            if (cap == null || bracketValue == null) {
+                throw new IllegalStateException(name + " bracket " + i + " is missing its salary cap or value.");
+            }
+            if (bracketValue.signum() < 0) {
+                throw new IllegalStateException(name + " bracket " + i + " has a negative value: " + bracketValue);
+            }
+            try {
+                caps[i] = cap.movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalStateException(name + " bracket " + i + " has an invalid salary cap: " + cap, e);
+            }
+            if (i > 0 && caps[i] <= caps[i - 1]) {
+                throw new IllegalStateException(name + " brackets are not in ascending salary cap order at bracket "
+                        + i + " (" + cap + ").");
+            }
+            try {
+                values[i] = bracketValue.setScale(valueScale, RoundingMode.UNNECESSARY).unscaledValue()
+                        .longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalStateException(name + " bracket " + i + " has more than " + valueScale
+                        + " decimal places or is too large: " + bracketValue, e);
+            }
+        }
+
+        if (caps[caps.length - 1] < MIN_TOP_SALARY_CAP * 100) {
+            throw new IllegalStateException(name + " brackets only cover salaries up to "
+                    + BigDecimal.valueOf(caps[caps.length - 1], 2) + "; the last bracket must be open-ended.");
+        }
+
+        return new ContributionTable(name, caps, values);
+    }
+
+    /**
+     * Finds the value of the first bracket whose salary cap is greater than or
+     * equal to the salary.
+     *
+     * @param salaryInCents The monthly salary in centavos.
+     * @return The bracket value at the table's value scale, or {@code -1} if the
+     *         salary is above every cap.
+     */
+    public long findValue(long salaryInCents) {
+        int index = Arrays.binarySearch(salaryCapsInCents, salaryInCents);
+        if (index < 0) {
+            index = -index - 1; // insertion point = first cap above the salary
+        }
+        return index < values.length ? values[index] : -1;
+    }
+
+    /**
+     * Same as {@link #findValue(long)} but fails when no bracket matches.
+     *
+     * @param salaryInCents The monthly salary in centavos.
+     * @return The bracket value at the table's value scale.
+     * @throws IllegalArgumentException If the salary is above every cap.
+     */
+    public long getValue(long salaryInCents) {
+        long value = findValue(salaryInCents);
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " contribution not found for salary "
+                    + Centavos.toBigDecimal(salaryInCents));
+        }
+        return value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return values.length;
+    }
+}
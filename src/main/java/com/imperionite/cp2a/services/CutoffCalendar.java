@@ -0,0 +1,201 @@
+// CutoffCalendar.java
+package com.imperionite.cp2a.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.imperionite.cp2a.dtos.MonthlyCutoffDTO;
+import com.imperionite.cp2a.dtos.WeeklyCutoffDTO;
+import com.imperionite.cp2a.repositories.AttendanceRepository;
+
+/**
+ * In-memory calendar of the weekly and monthly cut-offs spanned by the
+ * attendance records.
+ *
+ * The first and last attendance dates are read from the database once, on
+ * first use. After that, writers report the dates they saved with
+ * {@link #recordDates(LocalDate, LocalDate)} and the calendar widens its range
+ * when their transaction commits; reads never query the database. Attendance
+ * is never deleted, so the range only grows.
+ *
+ * Each cut-off list carries a strong ETag derived from the date range, which
+ * fully determines its content.
+ */
+@Component
+public class CutoffCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(CutoffCalendar.class);
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * An immutable view of the calendar for one date range.
+     */
+    public static final class Snapshot {
+
+        private final LocalDate minDate;
+        private final LocalDate maxDate;
+        private final List<WeeklyCutoffDTO> weeklyCutoffs;
+        private final List<MonthlyCutoffDTO> monthlyCutoffs;
+        private final String weeklyEtag;
+        private final String monthlyEtag;
+
+        private Snapshot(LocalDate minDate, LocalDate maxDate) {
+            this.minDate = minDate;
+            this.maxDate = maxDate;
+            this.weeklyCutoffs = Collections.unmodifiableList(buildWeeklyCutoffs(minDate, maxDate));
+            this.monthlyCutoffs = Collections.unmodifiableList(buildMonthlyCutoffs(minDate, maxDate));
+            String range = minDate == null ? "empty" : minDate + "_" + maxDate;
+            this.weeklyEtag = "\"weekly-" + range + "\"";
+            this.monthlyEtag = "\"monthly-" + range + "\"";
+        }
+
+        public LocalDate getMinDate() {
+            return minDate;
+        }
+
+        public LocalDate getMaxDate() {
+            return maxDate;
+        }
+
+        public List<WeeklyCutoffDTO> getWeeklyCutoffs() {
+            return weeklyCutoffs;
+        }
+
+        public List<MonthlyCutoffDTO> getMonthlyCutoffs() {
+            return monthlyCutoffs;
+        }
+
+        // Quoted strong entity tags, ready for the ETag header
+        public String getWeeklyEtag() {
+            return weeklyEtag;
+        }
+
+        public String getMonthlyEtag() {
+            return monthlyEtag;
+        }
+    }
+
+    /**
+     * Returns the current calendar, loading it from the database on first use.
+     *
+     * @return The current snapshot; never null.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = new Snapshot(attendanceRepository.findMinDate(), attendanceRepository.findMaxDate());
+                logger.info("Cut-off calendar loaded for {} to {}", snapshot.getMinDate(), snapshot.getMaxDate());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Reports that attendance between two dates was saved. Inside a transaction
+     * the calendar is updated after commit, so rolled-back writes are ignored.
+     *
+     * @param firstDate The earliest saved date.
+     * @param lastDate  The latest saved date.
+     */
+    public void recordDates(LocalDate firstDate, LocalDate lastDate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    widen(firstDate, lastDate);
+                }
+            });
+        } else {
+            widen(firstDate, lastDate);
+        }
+    }
+
+    /**
+     * Discards the calendar; the next read reloads it from the database.
+     */
+    public void reload() {
+        snapshot = null;
+    }
+
+    private synchronized void widen(LocalDate firstDate, LocalDate lastDate) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return; // not loaded yet; the first read sees the committed rows
+        }
+        LocalDate minDate = current.getMinDate() == null || firstDate.isBefore(current.getMinDate()) ? firstDate
+                : current.getMinDate();
+        LocalDate maxDate = current.getMaxDate() == null || lastDate.isAfter(current.getMaxDate()) ? lastDate
+                : current.getMaxDate();
+        if (!minDate.equals(current.getMinDate()) || !maxDate.equals(current.getMaxDate())) {
+            snapshot = new Snapshot(minDate, maxDate);
+            logger.debug("Cut-off calendar widened to {} - {}", minDate, maxDate);
+        }
+    }
+
+    /**
+     * Weeks run Monday to Sunday from the week of the first attendance date; the
+     * last week ends on the last attendance date.
+     */
+    static List<WeeklyCutoffDTO> buildWeeklyCutoffs(LocalDate minDate, LocalDate maxDate) {
+        List<WeeklyCutoffDTO> weeklyCutoffs = new ArrayList<>();
+        if (minDate == null || maxDate == null) {
+            return weeklyCutoffs;
+        }
+
+        LocalDate currentDate = minDate.with(DayOfWeek.MONDAY); // Start from the first Monday
+        while (!currentDate.isAfter(maxDate)) {
+            LocalDate endDate = currentDate.with(DayOfWeek.SUNDAY);
+            if (endDate.isAfter(maxDate)) {
+                endDate = maxDate; // Adjust end date if it goes beyond maxDate
+            }
+            weeklyCutoffs.add(new WeeklyCutoffDTO(currentDate, endDate));
+            currentDate = currentDate.plusWeeks(1);
+        }
+        return weeklyCutoffs;
+    }
+
+    /**
+     * Calendar months from the first to the last attendance date, clipped to
+     * those dates.
+     */
+    static List<MonthlyCutoffDTO> buildMonthlyCutoffs(LocalDate minDate, LocalDate maxDate) {
+        List<MonthlyCutoffDTO> monthlyCutoffs = new ArrayList<>();
+        if (minDate == null || maxDate == null) {
+            return monthlyCutoffs;
+        }
+
+        YearMonth currentMonth = YearMonth.from(minDate);
+        while (!currentMonth.isAfter(YearMonth.from(maxDate))) {
+            LocalDate monthStartDate = currentMonth.atDay(1);
+            LocalDate monthEndDate = currentMonth.atEndOfMonth();
+            if (monthStartDate.isBefore(minDate)) {
+                monthStartDate = minDate;
+            }
+            if (monthEndDate.isAfter(maxDate)) {
+                monthEndDate = maxDate;
+            }
+            monthlyCutoffs.add(new MonthlyCutoffDTO(currentMonth, monthStartDate, monthEndDate));
+            currentMonth = currentMonth.plusMonths(1);
+        }
+        return monthlyCutoffs;
+    }
+}
@@ -0,0 +1,131 @@
+// DailyWorkSeries.java
+package com.imperionite.cp2a.services;
+
+import java.time.LocalDate;
+
+/**
+ * One employee's attendance as a daily series: for each day present, the
+ * worked minutes, the late minutes and the credited centi-hours of
+ * {@link WorkMinutes#creditedCentiHours}.
+ *
+ * The series holds running totals, so the hours of any period (week, half
+ * month, month or custom range) take two binary searches and a subtraction.
+ * Series are built from the {@link AttendanceColumnStore} and are immutable.
+ */
+public final class DailyWorkSeries {
+
+    private final String employeeNumber;
+    private final int[] epochDays;
+
+    // Running totals; element i is the sum of days 0 to i - 1
+    private final long[] workedMinutes;
+    private final long[] lateMinutes;
+    private final long[] creditedCentiHours;
+
+    /**
+     * Builds the series of one employee.
+     *
+     * @param employeeNumber The employee number.
+     * @param epochDays      The days present, ascending and distinct.
+     * @param logInSeconds   The log-in second of day of each day.
+     * @param logOutSeconds  The log-out second of day of each day.
+     */
+    DailyWorkSeries(String employeeNumber, int[] epochDays, int[] logInSeconds, int[] logOutSeconds) {
+        this.employeeNumber = employeeNumber;
+        this.epochDays = epochDays;
+        this.workedMinutes = new long[epochDays.length + 1];
+        this.lateMinutes = new long[epochDays.length + 1];
+        this.creditedCentiHours = new long[epochDays.length + 1];
+        for (int i = 0; i < epochDays.length; i++) {
+            long worked = WorkMinutes.minutesBetween(logInSeconds[i], logOutSeconds[i]);
+            long late = WorkMinutes.lateMinutes(logInSeconds[i]);
+            workedMinutes[i + 1] = workedMinutes[i] + worked;
+            lateMinutes[i + 1] = lateMinutes[i] + late;
+            creditedCentiHours[i + 1] = creditedCentiHours[i] + WorkMinutes.creditedCentiHours(worked, late);
+        }
+    }
+
+    /**
+     * Returns the series of an employee without attendance.
+     */
+    static DailyWorkSeries empty(String employeeNumber) {
+        return new DailyWorkSeries(employeeNumber, new int[0], new int[0], new int[0]);
+    }
+
+    public String getEmployeeNumber() {
+        return employeeNumber;
+    }
+
+    /**
+     * @return The credited centi-hours of a period.
+     */
+    public long getCreditedCentiHours(PayPeriod period) {
+        return getCreditedCentiHours(period.getStartDate(), period.getEndDate());
+    }
+
+    /**
+     * @return The credited centi-hours between two dates (inclusive).
+     */
+    public long getCreditedCentiHours(LocalDate startDate, LocalDate endDate) {
+        return sum(creditedCentiHours, startDate, endDate);
+    }
+
+    /**
+     * @return The worked minutes between two dates (inclusive), before any
+     *         late deduction.
+     */
+    public long getWorkedMinutes(LocalDate startDate, LocalDate endDate) {
+        return sum(workedMinutes, startDate, endDate);
+    }
+
+    /**
+     * @return The minutes logged in past the grace period between two dates
+     *         (inclusive).
+     */
+    public long getLateMinutes(LocalDate startDate, LocalDate endDate) {
+        return sum(lateMinutes, startDate, endDate);
+    }
+
+    /**
+     * @return The number of days with attendance between two dates (inclusive).
+     */
+    public int getDaysPresent(LocalDate startDate, LocalDate endDate) {
+        return Math.max(to(endDate) - from(startDate), 0);
+    }
+
+    /**
+     * @return The number of days in the series.
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    private long sum(long[] runningTotals, LocalDate startDate, LocalDate endDate) {
+        int from = from(startDate);
+        int to = to(endDate);
+        return from < to ? runningTotals[to] - runningTotals[from] : 0;
+    }
+
+    private int from(LocalDate startDate) {
+        return lowerBound(startDate.toEpochDay());
+    }
+
+    private int to(LocalDate endDate) {
+        return lowerBound(endDate.toEpochDay() + 1);
+    }
+
+    // Index of the first day >= key
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,57 @@
+// DataVersion.java
+package com.imperionite.cp2a.services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * One version of a dataset for conditional GETs: a strong entity tag and the
+ * time the dataset last changed.
+ */
+public final class DataVersion {
+
+    private final String etag;
+    private final long lastModified;
+
+    DataVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Creates the version of fixed content, tagged with a digest of its bytes so
+     * the tag stays the same across restarts.
+     *
+     * @param name         The dataset name, used as the tag prefix.
+     * @param content      The content as loaded.
+     * @param lastModified When the content was loaded, in epoch milliseconds.
+     * @return The version.
+     */
+    public static DataVersion ofContent(String name, byte[] content, long lastModified) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return new DataVersion("\"" + name + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"",
+                    lastModified);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    // Quoted strong entity tag, ready for the ETag header
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return When the dataset last changed, in epoch milliseconds.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return etag;
+    }
+}
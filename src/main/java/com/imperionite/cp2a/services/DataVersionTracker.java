@@ -0,0 +1,88 @@
+// DataVersionTracker.java
+package com.imperionite.cp2a.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tracks the version of the employee and attendance data, so read-mostly GET
+ * endpoints can answer {@code If-None-Match} and {@code If-Modified-Since} with
+ * 304 Not Modified before running any query.
+ *
+ * Code that writes a dataset calls {@link #recordChange(Dataset)}; inside a
+ * transaction the version moves when it commits. Endpoints read the version
+ * before querying, so a response never carries a tag newer than its data. Tags
+ * hold a per-process instance id as well as a counter, so they stay unique
+ * across restarts.
+ */
+@Component
+public class DataVersionTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataVersionTracker.class);
+
+    /**
+     * The tracked datasets.
+     */
+    public enum Dataset {
+        EMPLOYEES, ATTENDANCE
+    }
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    // Guarded by this
+    private final Map<Dataset, Long> counters = new EnumMap<>(Dataset.class);
+
+    private final Map<Dataset, DataVersion> versions = new EnumMap<>(Dataset.class);
+
+    public DataVersionTracker() {
+        long now = System.currentTimeMillis();
+        for (Dataset dataset : Dataset.values()) {
+            counters.put(dataset, 0L);
+            versions.put(dataset, version(dataset, 0, now));
+        }
+    }
+
+    /**
+     * @return The current version of a dataset.
+     */
+    public synchronized DataVersion get(Dataset dataset) {
+        return versions.get(dataset);
+    }
+
+    /**
+     * Reports that a dataset changed. Inside a transaction the version moves
+     * after commit, so rolled-back writes are ignored.
+     *
+     * @param dataset The dataset.
+     */
+    public void recordChange(Dataset dataset) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(dataset);
+                }
+            });
+        } else {
+            advance(dataset);
+        }
+    }
+
+    private synchronized void advance(Dataset dataset) {
+        long counter = counters.get(dataset) + 1;
+        counters.put(dataset, counter);
+        versions.put(dataset, version(dataset, counter, System.currentTimeMillis()));
+        logger.debug("{} data now at version {}", dataset, versions.get(dataset));
+    }
+
+    private DataVersion version(Dataset dataset, long counter, long lastModified) {
+        return new DataVersion("\"" + dataset.name().toLowerCase() + "-" + instance + "-" + counter + "\"",
+                lastModified);
+    }
+}
@@ -2,11 +2,8 @@
 package com.imperionite.cp2a.services;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth; // Import YearMonth
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +18,7 @@
 import com.imperionite.cp2a.entities.Employee;
 
 import java.io.IOException;
+import java.io.InputStream;
 import jakarta.annotation.PostConstruct;
 
 @Service
@@ -34,28 +32,64 @@ public class DeductionsService {
     @Autowired
     private ResourceLoader resourceLoader;
 
+    @Autowired
+    private WithholdingTaxService withholdingTaxService;
+
     Contributions contributions;
 
+    // Digest-based version of the loaded tables, for conditional GETs
+    private DataVersion contributionsVersion;
+
+    // Compiled, binary-searchable forms of the loaded contribution tables
+    private ContributionTable sssTable;
+    private ContributionTable philHealthTable;
+    private ContributionTable pagIbigTable;
+
     /**
      * Loads contribution data from the `contributions.json` file during application
-     * startup.
+     * startup and compiles each table into a sorted, binary-searchable index.
      * This method is executed automatically after dependency injection.
      *
      * @throws IOException If an error occurs while reading or parsing the JSON
      * file.
+     * @throws IllegalStateException If a table is empty, unordered or does not
+     * cover the supported salary range.
      */
     @PostConstruct
     public void loadContributions() throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            contributions = objectMapper.readValue(
-                    resourceLoader.getResource("classpath:contributions.json").getInputStream(),
-                    Contributions.class);
+        try (InputStream input = resourceLoader.getResource("classpath:contributions.json").getInputStream()) {
+            byte[] content = input.readAllBytes();
+            contributions = objectMapper.readValue(content, Contributions.class);
+            contributionsVersion = DataVersion.ofContent("contributions", content, System.currentTimeMillis());
             logger.info("Successfully loaded contribution data from JSON.");
         } catch (IOException e) {
             logger.error("Error loading contribution data from JSON: {}", e.getMessage(), e);
             throw new IOException("Failed to load contribution data from JSON.", e);
         }
+
+        sssTable = ContributionTable.compile("SSS", contributions.getSss(),
+                ContributionBracket::getSalaryCap, ContributionBracket::getContribution, Centavos.SCALE);
+        philHealthTable = ContributionTable.compile("PhilHealth", contributions.getPhilhealth(),
+                ContributionBracket::getSalaryCap, ContributionBracket::getContribution, Centavos.SCALE);
+        pagIbigTable = ContributionTable.compile("Pag-Ibig", contributions.getPagibig(),
+                PagIbigBracket::getSalaryCap, PagIbigBracket::getContributionRate, Centavos.RATE_SCALE);
+        logger.info("Compiled contribution tables: {} SSS, {} PhilHealth and {} Pag-Ibig brackets.",
+                sssTable.size(), philHealthTable.size(), pagIbigTable.size());
+    }
+
+    /**
+     * @return The contribution tables as loaded from {@code contributions.json}.
+     */
+    public Contributions getContributions() {
+        return contributions;
+    }
+
+    /**
+     * @return The version of the loaded contribution tables.
+     */
+    public DataVersion getContributionsVersion() {
+        return contributionsVersion;
     }
 
     // --- WEEKLY DEDUCTION METHODS (EXISTING) ---
@@ -71,12 +105,10 @@ public void loadContributions() throws IOException {
      * or invalid basic salary.
      */
     public BigDecimal calculateWeeklySssDeduction(String employeeNumber, LocalDate startDate, LocalDate endDate) {
-        validateWeek(startDate, endDate);
+        PayPeriod week = validateWeek(startDate, endDate);
         Employee employee = getEmployee(employeeNumber);
-        BigDecimal basicSalary = getBasicSalary(employee);
 
-        BigDecimal monthlySssContribution = getMonthlyContribution(basicSalary, contributions.getSss(), "SSS");
-        return calculateWeeklyAmount(monthlySssContribution); // Use calculateWeeklyAmount helper
+        return Centavos.toBigDecimal(week.prorate(calculateMonthlySssCentavos(employee)));
     }
 
     /**
@@ -91,13 +123,10 @@ public BigDecimal calculateWeeklySssDeduction(String employeeNumber, LocalDate s
      */
     public BigDecimal calculateWeeklyPhilHealthDeduction(String employeeNumber, LocalDate startDate,
             LocalDate endDate) {
-        validateWeek(startDate, endDate);
+        PayPeriod week = validateWeek(startDate, endDate);
         Employee employee = getEmployee(employeeNumber);
-        BigDecimal basicSalary = getBasicSalary(employee);
 
-        BigDecimal monthlyPhilHealthPremium = getMonthlyContribution(basicSalary, contributions.getPhilhealth(),
-                "PhilHealth");
-        return calculateWeeklyAmount(monthlyPhilHealthPremium); // Use calculateWeeklyAmount helper
+        return Centavos.toBigDecimal(week.prorate(calculateMonthlyPhilHealthCentavos(employee)));
     }
 
     /**
@@ -112,12 +141,10 @@ public BigDecimal calculateWeeklyPhilHealthDeduction(String employeeNumber, Loca
      * invalid basic salary.
      */
     public BigDecimal calculateWeeklyPagIbigDeduction(String employeeNumber, LocalDate startDate, LocalDate endDate) {
-        validateWeek(startDate, endDate); // Use common validation
+        PayPeriod week = validateWeek(startDate, endDate); // Use common validation
         Employee employee = getEmployee(employeeNumber);
-        BigDecimal basicSalary = getBasicSalary(employee);
 
-        BigDecimal monthlyPagIbigContribution = getMonthlyPagIbigContribution(basicSalary);
-        return calculateWeeklyAmount(monthlyPagIbigContribution); // Use calculateWeeklyAmount helper
+        return Centavos.toBigDecimal(week.prorate(calculateMonthlyPagIbigCentavos(employee)));
     }
 
     /**
@@ -131,92 +158,10 @@ public BigDecimal calculateWeeklyPagIbigDeduction(String employeeNumber, LocalDa
      * is missing.
      */
     public BigDecimal calculateWeeklyWithholdingTax(String employeeNumber, LocalDate startDate, LocalDate endDate) {
-        validateWeek(startDate, endDate); // Use common validation
+        PayPeriod week = validateWeek(startDate, endDate); // Use common validation
 
         // Retrieve Employee Details
-        Employee employee = getEmployee(employeeNumber);
-        BigDecimal monthlySalary = getBasicSalary(employee);
-
-        // Convert Monthly Salary to Weekly Salary (Divide by 4.33)
-        BigDecimal weeklySalary = monthlySalary.divide(BigDecimal.valueOf(4.33), RoundingMode.HALF_UP);
-
-        // Retrieve Weekly Deductions
-        BigDecimal sssDeduction = calculateWeeklySssDeduction(employeeNumber, startDate, endDate);
-        BigDecimal philHealthDeduction = calculateWeeklyPhilHealthDeduction(employeeNumber, startDate,
-                endDate);
-        BigDecimal pagIbigDeduction = calculateWeeklyPagIbigDeduction(employeeNumber, startDate,
-                endDate);
-
-        // Calculate Total Deductions
-        BigDecimal totalDeductions = sssDeduction.add(philHealthDeduction).add(pagIbigDeduction);
-
-        // Calculate Weekly Taxable Income (Weekly Salary - Total Deductions)
-        BigDecimal taxableIncome = weeklySalary.subtract(totalDeductions);
-
-        // Compute Weekly Withholding Tax
-        return calculateWeeklyWithholdingTaxAmount(taxableIncome);
-    }
-
-    /**
-     * Calculates the weekly withholding tax based on taxable income.
-     * The tax is computed using weekly-adjusted tax brackets derived from the
-     * monthly tax table.
-     *
-     * Weekly tax brackets (derived by dividing monthly brackets by 4.33):
-     * - "4,813 and below" => No tax
-     * - "4,813 to below 7,692" => 20% of the amount in excess of 4,813
-     * - "7,692 to below 15,385" => 577 + 25% of the amount in excess of 7,692
-     * - "15,385 to below 38,462" => 2,502 + 30% of the amount in excess of 15,385
-     * - "38,462 to below 153,846" => 9,423 + 32% of the amount in excess of 38,462
-     * - "153,846 and above" => 46,385 + 35% of the amount in excess of 153,846
-     *
-     * @param taxableIncome The employee's **weekly** taxable income after
-     * deductions.
-     * @return The calculated weekly withholding tax.
-     */
-    private BigDecimal calculateWeeklyWithholdingTaxAmount(BigDecimal taxableIncome) {
-        if (taxableIncome.compareTo(BigDecimal.valueOf(4813)) <= 0) {
-            return BigDecimal.ZERO; // No withholding tax if taxable income is 4,813 or below
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(4813)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(7692)) <= 0) {
-            return taxableIncome.subtract(BigDecimal.valueOf(4813)).multiply(BigDecimal.valueOf(0.20)); // 20% in excess
-            // of 4,813
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(7692)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(15385)) <= 0) {
-            return BigDecimal.valueOf(577)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(7692)).multiply(BigDecimal.valueOf(0.25))); // 577 +
-            // 25% in
-            // excess
-            // of
-            // 7,692
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(15385)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(38462)) <= 0) {
-            return BigDecimal.valueOf(2502)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(15385)).multiply(BigDecimal.valueOf(0.30))); // 2,502
-            // + 30%
-            // in
-            // excess
-            // of
-            // 15,385
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(38462)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(153846)) <= 0) {
-            return BigDecimal.valueOf(9423)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(38462)).multiply(BigDecimal.valueOf(0.32))); // 9,423
-            // + 32%
-            // in
-            // excess
-            // of
-            // 38,462
-        } else {
-            return BigDecimal.valueOf(46385)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(153846)).multiply(BigDecimal.valueOf(0.35))); // 46,385
-            // +
-            // 35%
-            // in
-            // excess
-            // of
-            // 153,846
-        }
+        return calculateWithholdingTax(getEmployee(employeeNumber), week);
     }
 
     // --- MONTHLY DEDUCTION METHODS (NEW) ---
@@ -231,11 +176,23 @@ private BigDecimal calculateWeeklyWithholdingTaxAmount(BigDecimal taxableIncome)
      */
     public BigDecimal calculateMonthlySssDeduction(String employeeNumber, YearMonth yearMonth) {
         // No date validation needed for YearMonth, as it represents a full month.
-        Employee employee = getEmployee(employeeNumber);
-        BigDecimal basicSalary = getBasicSalary(employee);
+        return calculateMonthlySssDeduction(getEmployee(employeeNumber));
+    }
 
+    /**
+     * Calculates the monthly SSS deduction for an already loaded employee.
+     *
+     * @param employee The employee.
+     * @return The monthly SSS deduction amount.
+     * @throws IllegalArgumentException If the basic salary is invalid.
+     */
+    public BigDecimal calculateMonthlySssDeduction(Employee employee) {
+        return Centavos.toBigDecimal(calculateMonthlySssCentavos(employee));
+    }
+
+    private long calculateMonthlySssCentavos(Employee employee) {
         // SSS contribution is typically monthly, so we directly get the monthly value
-        return getMonthlyContribution(basicSalary, contributions.getSss(), "SSS");
+        return sssTable.getValue(getBasicSalaryCentavos(employee));
     }
 
     /**
@@ -248,11 +205,23 @@ public BigDecimal calculateMonthlySssDeduction(String employeeNumber, YearMonth
      */
     public BigDecimal calculateMonthlyPhilHealthDeduction(String employeeNumber, YearMonth yearMonth) {
         // No date validation needed for YearMonth
-        Employee employee = getEmployee(employeeNumber);
-        BigDecimal basicSalary = getBasicSalary(employee);
+        return calculateMonthlyPhilHealthDeduction(getEmployee(employeeNumber));
+    }
+
+    /**
+     * Calculates the monthly PhilHealth deduction for an already loaded employee.
+     *
+     * @param employee The employee.
+     * @return The monthly PhilHealth deduction amount.
+     * @throws IllegalArgumentException If the basic salary is invalid.
+     */
+    public BigDecimal calculateMonthlyPhilHealthDeduction(Employee employee) {
+        return Centavos.toBigDecimal(calculateMonthlyPhilHealthCentavos(employee));
+    }
 
+    private long calculateMonthlyPhilHealthCentavos(Employee employee) {
         // PhilHealth premium is typically monthly
-        return getMonthlyContribution(basicSalary, contributions.getPhilhealth(), "PhilHealth");
+        return philHealthTable.getValue(getBasicSalaryCentavos(employee));
     }
 
     /**
@@ -265,11 +234,23 @@ public BigDecimal calculateMonthlyPhilHealthDeduction(String employeeNumber, Yea
      */
     public BigDecimal calculateMonthlyPagIbigDeduction(String employeeNumber, YearMonth yearMonth) {
         // No date validation needed for YearMonth
-        Employee employee = getEmployee(employeeNumber);
-        BigDecimal basicSalary = getBasicSalary(employee);
+        return calculateMonthlyPagIbigDeduction(getEmployee(employeeNumber));
+    }
+
+    /**
+     * Calculates the monthly Pag-Ibig deduction for an already loaded employee.
+     *
+     * @param employee The employee.
+     * @return The monthly Pag-Ibig deduction amount.
+     * @throws IllegalArgumentException If the basic salary is invalid.
+     */
+    public BigDecimal calculateMonthlyPagIbigDeduction(Employee employee) {
+        return Centavos.toBigDecimal(calculateMonthlyPagIbigCentavos(employee));
+    }
 
+    private long calculateMonthlyPagIbigCentavos(Employee employee) {
         // Pag-Ibig contribution is monthly
-        return getMonthlyPagIbigContribution(basicSalary);
+        return getMonthlyPagIbigContribution(getBasicSalaryCentavos(employee));
     }
 
     /**
@@ -284,142 +265,194 @@ public BigDecimal calculateMonthlyWithholdingTax(String employeeNumber, YearMont
         // No date validation needed for YearMonth
 
         // Retrieve Employee Details
-        Employee employee = getEmployee(employeeNumber);
-        BigDecimal monthlySalary = getBasicSalary(employee);
+        return calculateWithholdingTax(getEmployee(employeeNumber), PayPeriod.monthly(yearMonth));
+    }
 
-        // Retrieve Monthly Deductions (calling the new monthly deduction methods)
-        BigDecimal sssDeduction = calculateMonthlySssDeduction(employeeNumber, yearMonth);
-        BigDecimal philHealthDeduction = calculateMonthlyPhilHealthDeduction(employeeNumber, yearMonth);
-        BigDecimal pagIbigDeduction = calculateMonthlyPagIbigDeduction(employeeNumber, yearMonth);
+    // --- PAYROLL CONTEXT METHODS ---
 
-        // Calculate Total Deductions
-        BigDecimal totalDeductions = sssDeduction.add(philHealthDeduction).add(pagIbigDeduction);
+    /**
+     * Calculates the SSS deduction for the period of a payroll context. The
+     * monthly contribution is memoized in the context; the period pays its
+     * share as given by {@link PayPeriod#prorate(long)}.
+     *
+     * @param context The payroll context of one employee and period.
+     * @return The SSS deduction for the context's period.
+     * @throws IllegalArgumentException If the basic salary is invalid.
+     */
+    public BigDecimal calculateSssDeduction(PayrollContext context) {
+        return Centavos.toBigDecimal(calculateSssCentavos(context));
+    }
 
-        // Calculate Monthly Taxable Income (Monthly Salary - Total Deductions)
-        BigDecimal taxableIncome = monthlySalary.subtract(totalDeductions);
+    /**
+     * Same as {@link #calculateSssDeduction(PayrollContext)} in centavos.
+     */
+    public long calculateSssCentavos(PayrollContext context) {
+        return forPeriod(context, monthlySssCentavos(context));
+    }
 
-        // Compute Monthly Withholding Tax
-        return calculateMonthlyWithholdingTaxAmount(taxableIncome);
+    // The context's monthly SSS contribution, memoized
+    private long monthlySssCentavos(PayrollContext context) {
+        if (context.getMonthlySssCentavos() == PayrollContext.NOT_COMPUTED) {
+            context.setMonthlySssCentavos(calculateMonthlySssCentavos(context.getEmployee()));
+        }
+        return context.getMonthlySssCentavos();
     }
 
     /**
-     * Calculates the monthly withholding tax based on taxable income.
-     * The tax is computed using the actual monthly tax brackets from the BIR.
+     * Calculates the PhilHealth deduction for the period of a payroll context.
      *
-     * Monthly tax brackets (Effective Jan 1, 2023 - TRAIN Law, amended):
-     * - "20,833 and below" => No tax
-     * - "20,833 to below 33,333" => 20% of the amount in excess of 20,833
-     * - "33,333 to below 66,667" => 2,500 + 25% of the amount in excess of 33,333
-     * - "66,667 to below 166,667" => 10,833.33 + 30% of the amount in excess of 66,667
-     * - "166,667 to below 666,667" => 40,833.33 + 32% of the amount in excess of 166,667
-     * - "666,667 and above" => 200,833.33 + 35% of the amount in excess of 666,667
-     *
-     * @param taxableIncome The employee's **monthly** taxable income after
-     * deductions.
-     * @return The calculated monthly withholding tax.
+     * @param context The payroll context of one employee and period.
+     * @return The PhilHealth deduction for the context's period.
+     * @throws IllegalArgumentException If the basic salary is invalid.
      */
-    private BigDecimal calculateMonthlyWithholdingTaxAmount(BigDecimal taxableIncome) {
-        if (taxableIncome.compareTo(BigDecimal.valueOf(20833)) <= 0) {
-            return BigDecimal.ZERO; // No tax
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(20833)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(33333)) <= 0) {
-            return taxableIncome.subtract(BigDecimal.valueOf(20833)).multiply(BigDecimal.valueOf(0.20))
-                    .setScale(2, RoundingMode.HALF_UP);
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(33333)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(66667)) <= 0) {
-            return BigDecimal.valueOf(2500)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(33333)).multiply(BigDecimal.valueOf(0.25)))
-                    .setScale(2, RoundingMode.HALF_UP);
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(66667)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(166667)) <= 0) {
-            return BigDecimal.valueOf(10833.33)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(66667)).multiply(BigDecimal.valueOf(0.30)))
-                    .setScale(2, RoundingMode.HALF_UP);
-        } else if (taxableIncome.compareTo(BigDecimal.valueOf(166667)) > 0
-                && taxableIncome.compareTo(BigDecimal.valueOf(666667)) <= 0) {
-            return BigDecimal.valueOf(40833.33)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(166667)).multiply(BigDecimal.valueOf(0.32)))
-                    .setScale(2, RoundingMode.HALF_UP);
-        } else {
-            return BigDecimal.valueOf(200833.33)
-                    .add(taxableIncome.subtract(BigDecimal.valueOf(666667)).multiply(BigDecimal.valueOf(0.35)))
-                    .setScale(2, RoundingMode.HALF_UP);
+    public BigDecimal calculatePhilHealthDeduction(PayrollContext context) {
+        return Centavos.toBigDecimal(calculatePhilHealthCentavos(context));
+    }
+
+    /**
+     * Same as {@link #calculatePhilHealthDeduction(PayrollContext)} in centavos.
+     */
+    public long calculatePhilHealthCentavos(PayrollContext context) {
+        return forPeriod(context, monthlyPhilHealthCentavos(context));
+    }
+
+    // The context's monthly PhilHealth contribution, memoized
+    private long monthlyPhilHealthCentavos(PayrollContext context) {
+        if (context.getMonthlyPhilHealthCentavos() == PayrollContext.NOT_COMPUTED) {
+            context.setMonthlyPhilHealthCentavos(calculateMonthlyPhilHealthCentavos(context.getEmployee()));
         }
+        return context.getMonthlyPhilHealthCentavos();
     }
 
     /**
-     * Calculates the monthly Pag-Ibig contribution based on the provided basic
-     * salary.
+     * Calculates the Pag-Ibig deduction for the period of a payroll context.
      *
-     * @param basicSalary The employee's basic monthly salary.
-     * @return The monthly Pag-Ibig contribution amount.
-     * @throws IllegalArgumentException If the basic salary is invalid or no
-     * matching Pag-Ibig contribution is found.
+     * @param context The payroll context of one employee and period.
+     * @return The Pag-Ibig deduction for the context's period.
+     * @throws IllegalArgumentException If the basic salary is invalid.
+     */
+    public BigDecimal calculatePagIbigDeduction(PayrollContext context) {
+        return Centavos.toBigDecimal(calculatePagIbigCentavos(context));
+    }
+
+    /**
+     * Same as {@link #calculatePagIbigDeduction(PayrollContext)} in centavos.
      */
-    private BigDecimal getMonthlyPagIbigContribution(BigDecimal basicSalary) {
-        // Updated to use the contributions.getPagibig() from the loaded JSON
-        // The PagIbigBracket is expected to have salaryCap and contribution or rate,
-        // matching the structure needed for getMonthlyContribution or specific logic.
-        // Assuming your 'PagIbigBracket' DTO looks like:
-        // @Data
-        // public class PagIbigBracket {
-        //     private BigDecimal salaryThreshold; // or salaryCap
-        //     private BigDecimal employeeContributionRate;
-        //     private BigDecimal employerContributionRate; // If applicable for calculations
-        //     private BigDecimal maxContribution; // If there's a cap defined in the bracket
-        // }
-        // For simplicity, let's assume getPagibig() returns brackets similar to SSS/PhilHealth
-        // if PagIbigBracket has a 'contribution' field or a 'rate' that we multiply by salary.
-
-        // If the 'PagIbigBracket' has `salaryThreshold` and `employeeContributionRate`,
-        // and a max contribution, the logic below might need adjustment based on how
-        // `contributions.json` defines Pag-IBIG.
-        // Given the previous manual Pag-Ibig table, I'll update it to use the new
-        // `contributions.getPagibig()` but will keep the hardcoded cap if it's not
-        // explicitly defined JSON structure for Pag-IBIG brackets.
-
-        BigDecimal employeeContributionRate = BigDecimal.ZERO;
-        // BigDecimal employerContributionRate = BigDecimal.ZERO; // Assuming employer share is also defined if needed
-        BigDecimal maxContribution = new BigDecimal("100"); // Default cap as per old logic if not in JSON
-
-        // Find the applicable Pag-IBIG bracket
-        for (PagIbigBracket bracket : contributions.getPagibig()) { // Assuming PagIbigBracket extends/is ContributionBracket
-            if (basicSalary.compareTo(bracket.getSalaryCap()) <= 0) {
-                // Assuming `contribution` field in PagIbigBracket represents the employee's rate
-                // For Pag-IBIG, it's often a percentage. Let's assume `contribution` is the percentage.
-                employeeContributionRate = bracket.getContributionRate(); // This is the rate (e.g., 0.01 or 0.02)
-                // If there's a max contribution for this bracket, you might also have:
-                // if (bracket.getMaxContribution() != null) maxContribution = bracket.getMaxContribution();
-                break;
-            }
+    public long calculatePagIbigCentavos(PayrollContext context) {
+        return forPeriod(context, monthlyPagIbigCentavos(context));
+    }
+
+    // The context's monthly Pag-Ibig contribution, memoized
+    private long monthlyPagIbigCentavos(PayrollContext context) {
+        if (context.getMonthlyPagIbigCentavos() == PayrollContext.NOT_COMPUTED) {
+            context.setMonthlyPagIbigCentavos(calculateMonthlyPagIbigCentavos(context.getEmployee()));
         }
+        return context.getMonthlyPagIbigCentavos();
+    }
 
-        BigDecimal monthlyContribution = basicSalary.multiply(employeeContributionRate);
+    /**
+     * Calculates the withholding tax for the period of a payroll context, reusing
+     * the context's memoized contributions.
+     * Weekly taxable income is the basic salary divided by 4.33 less the weekly
+     * deductions, taxed with the "weekly" table of withholding_tax.json;
+     * semi-monthly taxable income is the gross semi-monthly rate (half the basic
+     * salary when absent) less the semi-monthly deductions, taxed with the
+     * "semiMonthly" table; monthly taxable income is the basic salary less the
+     * monthly deductions, taxed with the "monthly" table. Custom periods pay
+     * their prorated share of the monthly tax. The tax is rounded half-up to the
+     * centavo.
+     *
+     * @param context The payroll context of one employee and period.
+     * @return The withholding tax for the context's period.
+     * @throws IllegalArgumentException If salary data is missing.
+     */
+    public BigDecimal calculateWithholdingTax(PayrollContext context) {
+        return Centavos.toBigDecimal(calculateWithholdingTaxCentavos(context));
+    }
 
-        // Apply the cap to the *employee's share*. Pag-IBIG has a max contribution of P100 for the employee.
-        // It's crucial to confirm if the cap is for the employee's share, employer's share, or total.
-        // Based on typical Philippine payroll, the employee's share is capped at P100.
-        if (monthlyContribution.compareTo(maxContribution) > 0) {
-            monthlyContribution = maxContribution;
+    /**
+     * Same as {@link #calculateWithholdingTax(PayrollContext)} in centavos.
+     */
+    public long calculateWithholdingTaxCentavos(PayrollContext context) {
+        if (context.getWithholdingTaxCentavos() == PayrollContext.NOT_COMPUTED) {
+            context.setWithholdingTaxCentavos(calculateWithholdingTaxCentavos(context.getEmployee(),
+                    context.getPeriod(), monthlySssCentavos(context), monthlyPhilHealthCentavos(context),
+                    monthlyPagIbigCentavos(context)));
         }
+        return context.getWithholdingTaxCentavos();
+    }
 
-        return monthlyContribution.setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Calculates the withholding tax of an already loaded employee for a pay
+     * period, as {@link #calculateWithholdingTax(PayrollContext)} does. The tax
+     * does not depend on the hours worked.
+     *
+     * @param employee The employee.
+     * @param period   The pay period.
+     * @return The withholding tax for the period.
+     * @throws IllegalArgumentException If salary data is missing.
+     */
+    public BigDecimal calculateWithholdingTax(Employee employee, PayPeriod period) {
+        return Centavos.toBigDecimal(calculateWithholdingTaxCentavos(employee, period,
+                calculateMonthlySssCentavos(employee), calculateMonthlyPhilHealthCentavos(employee),
+                calculateMonthlyPagIbigCentavos(employee)));
     }
 
-    // --- HELPER FUNCTIONS (RETAINED/MODIFIED) ---
+    private long calculateWithholdingTaxCentavos(Employee employee, PayPeriod period, long monthlySss,
+            long monthlyPhilHealth, long monthlyPagIbig) {
+        long monthlySalary = getBasicSalaryCentavos(employee);
+
+        // Calculate Total Deductions for the period
+        long totalDeductions = period.prorate(monthlySss) + period.prorate(monthlyPhilHealth)
+                + period.prorate(monthlyPagIbig);
+
+        switch (period.getType()) {
+            case WEEKLY:
+                // Convert Monthly Salary to Weekly Salary (Divide by 4.33)
+                long weeklySalary = Centavos.divideHalfUp(monthlySalary * 100, 433);
+                return withholdingTaxService.calculateTax(WithholdingTaxService.WEEKLY,
+                        weeklySalary - totalDeductions);
+            case SEMI_MONTHLY:
+                long semiMonthlySalary = employee.getGrossSemiMonthlyRate() != null
+                        ? Centavos.of(employee.getGrossSemiMonthlyRate())
+                        : Centavos.divideHalfUp(monthlySalary, 2);
+                return withholdingTaxService.calculateTax(WithholdingTaxService.SEMI_MONTHLY,
+                        semiMonthlySalary - totalDeductions);
+            case MONTHLY:
+                return withholdingTaxService.calculateTax(WithholdingTaxService.MONTHLY,
+                        monthlySalary - totalDeductions);
+            default:
+                return period.prorate(withholdingTaxService.calculateTax(WithholdingTaxService.MONTHLY,
+                        monthlySalary - (monthlySss + monthlyPhilHealth + monthlyPagIbig)));
+        }
+    }
 
     /**
-     * Helper function to validate if the given dates represent a valid week
-     * (Monday to Sunday)
+     * Calculates the monthly Pag-Ibig contribution based on the provided basic
+     * salary.
      *
-     * @param startDate the start date
-     * @param endDate   the end date
-     * @return true if the dates are a valid week, false otherwise
+     * @param basicSalary The employee's basic monthly salary, in centavos.
+     * @return The monthly Pag-Ibig contribution amount, in centavos.
      */
-    private boolean isValidWeek(LocalDate startDate, LocalDate endDate) {
-        return startDate.getDayOfWeek() == DayOfWeek.MONDAY && endDate.getDayOfWeek() == DayOfWeek.SUNDAY;
+    private long getMonthlyPagIbigContribution(long basicSalary) {
+        // The Pag-IBIG brackets in contributions.json carry the employee's contribution
+        // rate (e.g. 0.01 or 0.02); the employee share is capped at P100.
+        long maxContribution = 100 * 100L; // Default cap as per old logic if not in JSON
+
+        // Find the applicable Pag-IBIG bracket; salaries above every bracket contribute nothing
+        long employeeContributionRate = pagIbigTable.findValue(basicSalary);
+        if (employeeContributionRate < 0) {
+            return 0;
+        }
+
+        // Apply the cap to the *employee's share*. Pag-IBIG has a max contribution of P100 for the employee.
+        // It's crucial to confirm if the cap is for the employee's share, employer's share, or total.
+        // Based on typical Philippine payroll, the employee's share is capped at P100.
+        return Math.min(Centavos.multiplyByRate(basicSalary, employeeContributionRate), maxContribution);
     }
 
+    // --- HELPER FUNCTIONS (RETAINED/MODIFIED) ---
+
     /**
      * Retrieves the employee by employee number.
      *
@@ -428,7 +461,7 @@ private boolean isValidWeek(LocalDate startDate, LocalDate endDate) {
      * @throws IllegalArgumentException If the employee is not found.
      */
     private Employee getEmployee(String employeeNumber) {
-        return employeeService.getEmployeeByEmployeeNumber(employeeNumber)
+        return employeeService.getPayrollEmployee(employeeNumber)
                 .orElseThrow(() -> new IllegalArgumentException("Employee not found."));
     }
 
@@ -436,55 +469,52 @@ private Employee getEmployee(String employeeNumber) {
      * Retrieves the basic salary of the employee.
      *
      * @param employee The employee.
-     * @return The basic salary.
+     * @return The basic salary, in centavos.
      * @throws IllegalArgumentException If the basic salary is not found.
      */
-    private BigDecimal getBasicSalary(Employee employee) {
+    private long getBasicSalaryCentavos(Employee employee) {
         BigDecimal basicSalary = employee.getBasicSalary();
         if (basicSalary == null) {
             throw new IllegalArgumentException("Basic salary not found for employee " + employee.getEmployeeNumber());
         }
-        return basicSalary;
+        return Centavos.of(basicSalary);
     }
 
-    private void validateWeek(LocalDate startDate, LocalDate endDate) {
-        if (!isValidWeek(startDate, endDate)) {
-            throw new IllegalArgumentException(
-                    "Invalid date range. Start date must be a Monday and end date must be a Sunday.");
-        }
+    // Accepts a whole Monday-Sunday week or the clipped part of one
+    private PayPeriod validateWeek(LocalDate startDate, LocalDate endDate) {
+        return PayPeriod.weekly(startDate, endDate);
+    }
+
+    /**
+     * Converts a monthly amount to the amount due for the context's period.
+     *
+     * @param context       The payroll context.
+     * @param monthlyAmount The monthly amount, in centavos.
+     * @return The period's share of the monthly amount.
+     */
+    private long forPeriod(PayrollContext context, long monthlyAmount) {
+        return context.getPeriod().prorate(monthlyAmount);
     }
 
     /**
-     * Generic method to retrieve the monthly contribution based on the basic salary
-     * and contribution table.
+     * Calculates the weekly amount from a monthly amount by dividing by 4,
+     * rounding half-up to the centavo.
      *
-     * @param basicSalary          The employee's basic monthly salary.
-     * @param contributionBrackets The list of contribution brackets.
-     * @param deductionType        The type of deduction (e.g., "SSS",
-     * "PhilHealth"). Used for exception messages.
-     * @return The monthly contribution amount (BigDecimal).
-     * @throws IllegalArgumentException If salary is invalid or contribution not
-     * found.
+     * @param monthlyAmount The monthly amount, in centavos.
+     * @return The weekly amount, in centavos.
      */
-    private BigDecimal getMonthlyContribution(BigDecimal basicSalary,
-            List<? extends ContributionBracket> contributionBrackets, String deductionType) {
-        // Filter brackets where basicSalary is less than or equal to the salaryCap
-        return contributionBrackets.stream()
-                .filter(bracket -> basicSalary.compareTo(bracket.getSalaryCap()) <= 0)
-                .findFirst() // Get the first matching bracket (assuming brackets are ordered)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        deductionType + " contribution not found for salary " + basicSalary))
-                .getContribution(); // Returns the 'contribution' value from the bracket
+    private long toWeekly(long monthlyAmount) {
+        return Centavos.divideHalfUp(monthlyAmount, 4);
     }
 
     /**
      * Calculates the weekly amount from a monthly amount by dividing by 4.
      *
      * @param monthlyAmount The monthly amount.
-     * @return The weekly amount.
+     * @return The weekly amount, rounded half-up to the centavo.
      */
-    private BigDecimal calculateWeeklyAmount(BigDecimal monthlyAmount) {
-        return monthlyAmount.divide(BigDecimal.valueOf(4), RoundingMode.HALF_UP);
+    public BigDecimal calculateWeeklyAmount(BigDecimal monthlyAmount) {
+        return Centavos.toBigDecimal(toWeekly(Centavos.of(monthlyAmount)));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+// EmployeeBatchWriter.java
+package com.imperionite.cp2a.services;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.imperionite.cp2a.entities.Employee;
+import com.imperionite.cp2a.entities.User;
+
+/**
+ * Inserts users and employees with batched JDBC statements, bypassing the JPA
+ * persistence context. With {@code rewriteBatchedStatements=true} on the MySQL
+ * URL each batch is sent as a single multi-row INSERT. The generated user ids
+ * are read back with one query per batch, so employees can reference them.
+ *
+ * The writer does not open a transaction; it joins the caller's.
+ */
+@Component
+public class EmployeeBatchWriter {
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users "
+            + "(username, password, is_active, is_admin, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private static final String SELECT_USER_IDS_SQL = "SELECT id, username FROM users WHERE username IN (:usernames)";
+
+    private static final String INSERT_EMPLOYEE_SQL = "INSERT INTO employees "
+            + "(employee_number, last_name, first_name, birthday, address, phone_number, sss, philhealth, tin, "
+            + "pagibig, status, position, immediate_supervisor, basic_salary, rice_subsidy, phone_allowance, "
+            + "clothing_allowance, gross_semi_monthly_rate, hourly_rate, user_id, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_DATE, CURRENT_DATE)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Inserts the users in one JDBC batch and sets their generated ids.
+     *
+     * @param users The users to insert; their usernames must be new.
+     * @return The number of users written.
+     */
+    public int insertUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, users, users.size(), (ps, user) -> {
+            ps.setString(1, user.getUsername());
+            ps.setString(2, user.getPassword());
+            ps.setBoolean(3, user.getIsActive());
+            ps.setBoolean(4, user.getIsAdmin());
+        });
+
+        List<String> usernames = new ArrayList<>(users.size());
+        for (User user : users) {
+            usernames.add(user.getUsername());
+        }
+        Map<String, Long> ids = new HashMap<>(users.size() * 2);
+        namedParameterJdbcTemplate.query(SELECT_USER_IDS_SQL, Map.of("usernames", usernames),
+                rs -> {
+                    ids.put(rs.getString("username"), rs.getLong("id"));
+                });
+        for (User user : users) {
+            user.setId(ids.get(user.getUsername()));
+        }
+        return users.size();
+    }
+
+    /**
+     * Inserts the employees in one JDBC batch.
+     *
+     * @param employees The employees to insert, each with a saved user; ids are
+     *                  not read or set.
+     * @return The number of employees written.
+     */
+    public int insertEmployees(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EMPLOYEE_SQL, employees, employees.size(), (ps, employee) -> {
+            ps.setString(1, employee.getEmployeeNumber());
+            ps.setString(2, employee.getLastName());
+            ps.setString(3, employee.getFirstName());
+            ps.setDate(4, Date.valueOf(employee.getBirthday()));
+            ps.setString(5, employee.getAddress());
+            ps.setString(6, employee.getPhoneNumber());
+            ps.setString(7, employee.getSss());
+            ps.setString(8, employee.getPhilhealth());
+            ps.setString(9, employee.getTin());
+            ps.setString(10, employee.getPagibig());
+            ps.setString(11, employee.getStatus());
+            ps.setString(12, employee.getPosition());
+            ps.setString(13, employee.getImmediateSupervisor());
+            ps.setBigDecimal(14, employee.getBasicSalary());
+            ps.setBigDecimal(15, employee.getRiceSubsidy());
+            ps.setBigDecimal(16, employee.getPhoneAllowance());
+            ps.setBigDecimal(17, employee.getClothingAllowance());
+            ps.setBigDecimal(18, employee.getGrossSemiMonthlyRate());
+            ps.setBigDecimal(19, employee.getHourlyRate());
+            ps.setLong(20, employee.getUser().getId());
+        });
+        return employees.size();
+    }
+}
@@ -0,0 +1,143 @@
+// EmployeeCache.java
+package com.imperionite.cp2a.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.imperionite.cp2a.dtos.EmployeeCacheStatsDTO;
+import com.imperionite.cp2a.dtos.EmployeePayrollInfoDTO;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through cache of the payroll attributes of employees (names, status,
+ * position, salary and rates), keyed by employee number.
+ *
+ * A miss loads one row without the user join; concurrent misses for the same
+ * employee share one load. Entries expire {@code employee.cache.ttl-seconds}
+ * after loading and the least used are evicted beyond
+ * {@code employee.cache.maximum-size}. Unknown employee numbers are not
+ * cached, so a new employee is visible at once; code that changes an
+ * employee must call {@link #invalidate(String)}, which takes effect when the
+ * transaction commits.
+ */
+@Component
+public class EmployeeCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeCache.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Value("${employee.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${employee.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<String, EmployeePayrollInfoDTO> cache;
+
+    private final LongAdder invalidations = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        logger.info("Employee cache: up to {} entries for {} s", maximumSize, ttlSeconds);
+    }
+
+    /**
+     * Returns the payroll attributes of an employee, loading them on a miss.
+     * The returned object is shared and must not be modified.
+     *
+     * @param employeeNumber The employee number.
+     * @return The attributes, or empty when there is no such employee.
+     */
+    public Optional<EmployeePayrollInfoDTO> get(String employeeNumber) {
+        if (employeeNumber == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(employeeNumber,
+                key -> employeeRepository.findPayrollInfoByEmployeeNumber(key).orElse(null)));
+    }
+
+    /**
+     * Returns the payroll attributes of several employees, loading every miss
+     * with one query. The returned objects are shared and must not be modified.
+     *
+     * @param employeeNumbers The employee numbers.
+     * @return The attributes by employee number; unknown employees are absent.
+     */
+    public Map<String, EmployeePayrollInfoDTO> getAll(Collection<String> employeeNumbers) {
+        return cache.getAll(employeeNumbers, missing -> {
+            Map<String, EmployeePayrollInfoDTO> loaded = new HashMap<>();
+            List<EmployeePayrollInfoDTO> infos = employeeRepository
+                    .findPayrollInfoByEmployeeNumbers(List.copyOf(missing));
+            for (EmployeePayrollInfoDTO info : infos) {
+                loaded.put(info.getEmployeeNumber(), info);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Drops an employee's entry. Inside a transaction this happens after
+     * commit, so a concurrent reader cannot cache the old row again.
+     *
+     * @param employeeNumber The employee number.
+     */
+    public void invalidate(String employeeNumber) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(employeeNumber);
+                }
+            });
+        } else {
+            evict(employeeNumber);
+        }
+    }
+
+    /**
+     * Drops every entry, e.g. after a bulk change.
+     */
+    public void invalidateAll() {
+        invalidations.add(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return The hit, miss and eviction counts since startup.
+     */
+    public EmployeeCacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return new EmployeeCacheStatsDTO(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount(), invalidations.sum());
+    }
+
+    private void evict(String employeeNumber) {
+        invalidations.increment();
+        cache.invalidate(employeeNumber);
+    }
+}
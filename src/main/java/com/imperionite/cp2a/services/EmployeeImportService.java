@@ -0,0 +1,437 @@
+// EmployeeImportService.java
+package com.imperionite.cp2a.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.imperionite.cp2a.dtos.EmployeeIdentifiersDTO;
+import com.imperionite.cp2a.dtos.EmployeeImportResultDTO;
+import com.imperionite.cp2a.dtos.EmployeeImportRowDTO;
+import com.imperionite.cp2a.dtos.EmployeeOrgInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeSearchInfoDTO;
+import com.imperionite.cp2a.entities.Employee;
+import com.imperionite.cp2a.entities.User;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+import com.imperionite.cp2a.repositories.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Onboards employees in bulk from a CSV upload in the
+ * {@code employees_details.csv} format, creating each employee's user (the
+ * employee number, with the default password) on the way.
+ *
+ * Rows are read one at a time and validated against the employee numbers,
+ * usernames and unique ids loaded once per import. The BCrypt hash of each new
+ * user's password is started as soon as its row is accepted, on a bounded pool
+ * of {@code employee.import.hash-threads} threads, so hashing runs in parallel
+ * and overlaps reading. Every {@code employee.import.batch-size} rows the
+ * hashes are awaited and the users and employees are inserted with
+ * {@link EmployeeBatchWriter} in one transaction. A user that already exists
+ * under the employee number, and that no employee is linked to, is linked
+ * instead of created.
+ *
+ * The report has a result for every row. Rejected rows are skipped; the caches,
+ * search index and reporting hierarchy learn of the created employees when
+ * each batch commits.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    static final String[] HEADERS = { "Employee #", "Last Name", "First Name", "Birthday", "Address",
+            "Phone Number", "SSS #", "Philhealth #", "TIN #", "Pag-ibig #", "Status", "Position",
+            "Immediate Supervisor", "Basic Salary", "Rice Subsidy", "Phone Allowance", "Clothing Allowance",
+            "Gross Semi-monthly Rate", "Hourly Rate" };
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private static final int MAX_NAME_LENGTH = 50; // as validated on Employee
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmployeeBatchWriter employeeBatchWriter;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private ReportingHierarchy reportingHierarchy;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
+    @Autowired
+    private PasswordEncoder encoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${employee.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${employee.import.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${employee.import.default-password:passworD#1}")
+    private String defaultPassword;
+
+    private ThreadPoolExecutor hashExecutor;
+
+    @PostConstruct
+    void init() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger created = new AtomicInteger();
+        // Bounded queue; when it is full the reading thread hashes the row itself, which throttles reading
+        hashExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "employee-import-hash-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        logger.info("Employee import: batches of {} rows, {} password hashing threads", batchSize, threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * Imports a CSV upload whose first line is the header.
+     *
+     * @param input The upload; read once and not closed.
+     * @return The import report.
+     * @throws IOException If the upload cannot be read.
+     */
+    public EmployeeImportResultDTO importCsv(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        Iterable<CSVRecord> records = CSVFormat.Builder.create()
+                .setHeader(HEADERS)
+                .setSkipHeaderRecord(true)
+                .build()
+                .parse(reader);
+
+        for (CSVRecord record : records) {
+            long line = record.getRecordNumber() + 1; // the header is line 1
+            if (!record.isConsistent()) {
+                run.reject(line, record.size() > 0 ? clean(record.get(0)) : null,
+                        "Expected " + HEADERS.length + " columns but found " + record.size() + ".");
+                continue;
+            }
+            run.accept(line, record);
+        }
+        return run.finish();
+    }
+
+    /**
+     * A row waiting for its batch: the employee, its user and, for a new user,
+     * the password hash being computed.
+     */
+    private static class PendingRow {
+        final EmployeeImportRowDTO result;
+        final Employee employee;
+        final CompletableFuture<String> passwordHash; // null when an existing user is linked
+
+        PendingRow(EmployeeImportRowDTO result, Employee employee, CompletableFuture<String> passwordHash) {
+            this.result = result;
+            this.employee = employee;
+            this.passwordHash = passwordHash;
+        }
+    }
+
+    /**
+     * State of one import: the known identifiers, the pending batch and the
+     * report.
+     */
+    private class ImportRun {
+
+        private final long startedAt = System.currentTimeMillis();
+        private final EmployeeImportResultDTO result = new EmployeeImportResultDTO();
+
+        // Taken values, from the database and from earlier rows of this upload
+        private final Set<String> employeeNumbers = new HashSet<>();
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> phoneNumbers = new HashSet<>();
+        private final Set<String> sssNumbers = new HashSet<>();
+        private final Set<String> philhealthNumbers = new HashSet<>();
+        private final Set<String> tinNumbers = new HashSet<>();
+        private final Set<String> pagibigNumbers = new HashSet<>();
+
+        // Existing users without an employee, by username
+        private final Map<String, User> unlinkedUsers = new HashMap<>();
+
+        private final List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        ImportRun() {
+            for (EmployeeIdentifiersDTO employee : employeeRepository.findAllIdentifiers()) {
+                employeeNumbers.add(employee.getEmployeeNumber());
+                phoneNumbers.add(employee.getPhoneNumber());
+                sssNumbers.add(employee.getSss());
+                philhealthNumbers.add(employee.getPhilhealth());
+                tinNumbers.add(employee.getTin());
+                pagibigNumbers.add(employee.getPagibig());
+            }
+            usernames.addAll(userRepository.findAllUsernames());
+            for (User user : userRepository.findAllWithoutEmployee()) {
+                if (!user.getIsAdmin()) {
+                    unlinkedUsers.put(user.getUsername(), user);
+                }
+            }
+        }
+
+        void accept(long line, CSVRecord record) {
+            String number = clean(record.get("Employee #"));
+            if (number.isEmpty()) {
+                reject(line, null, "Missing Employee #.");
+                return;
+            }
+            if (employeeNumbers.contains(number)) {
+                reject(line, number, "Employee # already exists or is repeated in this upload.");
+                return;
+            }
+
+            Employee employee = new Employee();
+            employee.setEmployeeNumber(number);
+            employee.setLastName(clean(record.get("Last Name")));
+            employee.setFirstName(clean(record.get("First Name")));
+            employee.setAddress(clean(record.get("Address")));
+            employee.setPhoneNumber(clean(record.get("Phone Number")));
+            employee.setSss(clean(record.get("SSS #")));
+            employee.setPhilhealth(clean(record.get("Philhealth #")));
+            employee.setTin(clean(record.get("TIN #")));
+            employee.setPagibig(clean(record.get("Pag-ibig #")));
+            employee.setStatus(clean(record.get("Status")));
+            employee.setPosition(clean(record.get("Position")));
+            employee.setImmediateSupervisor(clean(record.get("Immediate Supervisor")));
+
+            String missing = firstMissing(record, "Last Name", "First Name", "Address", "Phone Number", "SSS #",
+                    "Philhealth #", "TIN #", "Pag-ibig #", "Status", "Position", "Immediate Supervisor");
+            if (missing != null) {
+                reject(line, number, "Missing " + missing + ".");
+                return;
+            }
+            if (employee.getLastName().length() > MAX_NAME_LENGTH
+                    || employee.getFirstName().length() > MAX_NAME_LENGTH) {
+                reject(line, number, "Last Name and First Name may have at most " + MAX_NAME_LENGTH + " characters.");
+                return;
+            }
+            try {
+                employee.setBirthday(LocalDate.parse(clean(record.get("Birthday")), DATE_FORMAT));
+            } catch (DateTimeParseException e) {
+                reject(line, number, "Invalid Birthday '" + clean(record.get("Birthday")) + "'. Use MM/dd/yyyy.");
+                return;
+            }
+            try {
+                employee.setBasicSalary(amount(record, "Basic Salary"));
+                employee.setRiceSubsidy(amount(record, "Rice Subsidy"));
+                employee.setPhoneAllowance(amount(record, "Phone Allowance"));
+                employee.setClothingAllowance(amount(record, "Clothing Allowance"));
+                employee.setGrossSemiMonthlyRate(amount(record, "Gross Semi-monthly Rate"));
+                employee.setHourlyRate(amount(record, "Hourly Rate"));
+            } catch (IllegalArgumentException e) {
+                reject(line, number, e.getMessage());
+                return;
+            }
+            String duplicate = phoneNumbers.contains(employee.getPhoneNumber()) ? "Phone Number"
+                    : sssNumbers.contains(employee.getSss()) ? "SSS #"
+                            : philhealthNumbers.contains(employee.getPhilhealth()) ? "Philhealth #"
+                                    : tinNumbers.contains(employee.getTin()) ? "TIN #"
+                                            : pagibigNumbers.contains(employee.getPagibig()) ? "Pag-ibig #" : null;
+            if (duplicate != null) {
+                reject(line, number, duplicate + " already belongs to another employee.");
+                return;
+            }
+
+            EmployeeImportRowDTO row = new EmployeeImportRowDTO(line, number, STATUS_CREATED, null);
+            CompletableFuture<String> passwordHash = null;
+            User user = unlinkedUsers.remove(number);
+            if (user != null) {
+                row.setMessage("Linked to the existing user " + number + ".");
+            } else if (usernames.contains(number)) {
+                reject(line, number, "Username " + number + " is already taken.");
+                return;
+            } else {
+                user = new User(number, null);
+                passwordHash = CompletableFuture.supplyAsync(() -> encoder.encode(defaultPassword), hashExecutor);
+            }
+            employee.setUser(user);
+
+            employeeNumbers.add(number);
+            usernames.add(number);
+            phoneNumbers.add(employee.getPhoneNumber());
+            sssNumbers.add(employee.getSss());
+            philhealthNumbers.add(employee.getPhilhealth());
+            tinNumbers.add(employee.getTin());
+            pagibigNumbers.add(employee.getPagibig());
+
+            result.setRowsRead(result.getRowsRead() + 1);
+            result.getRows().add(row);
+            batch.add(new PendingRow(row, employee, passwordHash));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String employeeNumber, String message) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            result.setRowsRejected(result.getRowsRejected() + 1);
+            result.getRows().add(new EmployeeImportRowDTO(line, employeeNumber, STATUS_REJECTED, message));
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            long firstLine = batch.get(0).result.getLine();
+            long lastLine = batch.get(batch.size() - 1).result.getLine();
+            try {
+                List<User> newUsers = new ArrayList<>();
+                List<Employee> employees = new ArrayList<>(batch.size());
+                List<EmployeeSearchInfoDTO> searchInfos = new ArrayList<>(batch.size());
+                List<EmployeeOrgInfoDTO> orgInfos = new ArrayList<>(batch.size());
+                for (PendingRow pending : batch) {
+                    if (pending.passwordHash != null) {
+                        pending.employee.getUser().setPassword(pending.passwordHash.join());
+                        newUsers.add(pending.employee.getUser());
+                    }
+                    employees.add(pending.employee);
+                    searchInfos.add(EmployeeService.toSearchInfo(pending.employee));
+                    orgInfos.add(EmployeeService.toOrgInfo(pending.employee));
+                }
+
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    employeeBatchWriter.insertUsers(newUsers);
+                    employeeBatchWriter.insertEmployees(employees);
+                    for (Employee employee : employees) {
+                        employeeCache.invalidate(employee.getEmployeeNumber());
+                    }
+                    employeeSearchIndex.record(searchInfos);
+                    reportingHierarchy.record(orgInfos);
+                    dataVersionTracker.recordChange(DataVersionTracker.Dataset.EMPLOYEES);
+                });
+                result.setRowsCreated(result.getRowsCreated() + batch.size());
+                result.setUsersCreated(result.getUsersCreated() + newUsers.size());
+            } catch (RuntimeException e) {
+                logger.error("Employee import batch at lines {}-{} failed: {}", firstLine, lastLine, e.getMessage(),
+                        e);
+                // Nothing was saved, so the batch's values are free again for later rows
+                for (PendingRow pending : batch) {
+                    Employee employee = pending.employee;
+                    employeeNumbers.remove(employee.getEmployeeNumber());
+                    phoneNumbers.remove(employee.getPhoneNumber());
+                    sssNumbers.remove(employee.getSss());
+                    philhealthNumbers.remove(employee.getPhilhealth());
+                    tinNumbers.remove(employee.getTin());
+                    pagibigNumbers.remove(employee.getPagibig());
+                    if (pending.passwordHash == null) {
+                        unlinkedUsers.put(employee.getUser().getUsername(), employee.getUser());
+                    } else {
+                        usernames.remove(employee.getUser().getUsername());
+                    }
+
+                    pending.result.setStatus(STATUS_REJECTED);
+                    pending.result.setMessage("Batch of " + batch.size() + " rows (lines " + firstLine + "-"
+                            + lastLine + ") was not saved; see the server log.");
+                }
+                result.setRowsRejected(result.getRowsRejected() + batch.size());
+            }
+            batch.clear();
+        }
+
+        EmployeeImportResultDTO finish() {
+            flush();
+            result.setDurationMillis(System.currentTimeMillis() - startedAt);
+            logger.info("Employee import: {} rows read, {} created ({} new users), {} rejected in {} ms",
+                    result.getRowsRead(), result.getRowsCreated(), result.getUsersCreated(), result.getRowsRejected(),
+                    result.getDurationMillis());
+            return result;
+        }
+    }
+
+    // Name of the first required column that is blank, or null
+    private static String firstMissing(CSVRecord record, String... columns) {
+        for (String column : columns) {
+            if (clean(record.get(column)).isEmpty()) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    // Amount in a column; IllegalArgumentException naming the column when it is not a number
+    private static BigDecimal amount(CSVRecord record, String column) {
+        try {
+            return parseBigDecimal(record.get(column));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + clean(record.get(column)) + "'.");
+        }
+    }
+
+    /**
+     * Parses an amount such as {@code "90,000"}; a blank, "N" or "NULL" value is
+     * zero.
+     *
+     * @throws NumberFormatException If the value is not a number.
+     */
+    static BigDecimal parseBigDecimal(String value) {
+        String cleaned = clean(value).replace("\"", "").replace(",", "");
+        if (cleaned.isEmpty() || cleaned.equalsIgnoreCase("NULL") || cleaned.equalsIgnoreCase("N")) {
+            return BigDecimal.ZERO;
+        }
+        return new BigDecimal(cleaned);
+    }
+
+    /**
+     * Trims a field and strips non-breaking spaces and byte order marks that
+     * spreadsheet exports leave behind.
+     */
+    private static String clean(String value) {
+        return value == null ? "" : value.replace("\u00A0", "").replace("\uFEFF", "").trim();
+    }
+}
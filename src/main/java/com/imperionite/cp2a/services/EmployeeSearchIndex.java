@@ -0,0 +1,475 @@
+// EmployeeSearchIndex.java
+package com.imperionite.cp2a.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.imperionite.cp2a.dtos.EmployeeSearchInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeSearchResultDTO;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+/**
+ * In-memory typeahead index over employee numbers, names, SSS and TIN.
+ *
+ * Every field is normalized to lowercase letters and digits (accents and
+ * separators such as the dashes of an SSS number are dropped; names are split
+ * into words). A sorted key array answers prefix queries with one binary
+ * search, and a trigram index answers substring queries by intersecting
+ * posting lists and checking the few remaining candidates, so no query scans
+ * the employees. Query words must all match; exact matches rank above
+ * prefixes, which rank above substrings, and employee numbers and ids rank
+ * above names.
+ *
+ * The index is built with one query on startup (or on first use) and kept in
+ * sync by {@link #record(Collection)}, applied when the writing transaction
+ * commits. Each change builds a new immutable snapshot, so searches never
+ * lock; writes are rare and a rebuild takes milliseconds.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    public static final int MAX_RESULTS = 50;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[\\s,.]+");
+
+    /**
+     * The indexed fields, with their scores for exact, prefix and substring
+     * matches.
+     */
+    enum Field {
+        EMPLOYEE_NUMBER(100, 80, 30),
+        SSS(90, 70, 20),
+        TIN(90, 70, 20),
+        LAST_NAME(60, 50, 15),
+        FIRST_NAME(55, 45, 10);
+
+        final int exact;
+        final int prefix;
+        final int substring;
+
+        Field(int exact, int prefix, int substring) {
+            this.exact = exact;
+            this.prefix = prefix;
+            this.substring = substring;
+        }
+    }
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    // Source of the snapshot, by employee number; guarded by this
+    private final Map<String, EmployeeSearchInfoDTO> employees = new HashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Builds the index once the application (including the data initializers) is
+     * ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        snapshot();
+    }
+
+    /**
+     * Reports employees that were created or changed. Inside a transaction they
+     * are indexed after commit.
+     *
+     * @param changed The employees' current searchable fields.
+     */
+    public void record(Collection<EmployeeSearchInfoDTO> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<EmployeeSearchInfoDTO> copy = new ArrayList<>(changed);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(copy);
+                }
+            });
+        } else {
+            apply(copy);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database.
+     */
+    public synchronized void reload() {
+        employees.clear();
+        snapshot = null;
+        snapshot();
+    }
+
+    /**
+     * Finds employees whose number, name, SSS or TIN match a query.
+     *
+     * @param query The query; each word must prefix or be contained in a field.
+     * @param limit The maximum number of results (1 to {@link #MAX_RESULTS}).
+     * @return The matches, best first.
+     */
+    public List<EmployeeSearchResultDTO> search(String query, int limit) {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_RESULTS + ".");
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(query == null ? "" : query)) {
+            String token = normalize(word);
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return snapshot().search(tokens, limit);
+    }
+
+    /**
+     * @return The number of indexed employees.
+     */
+    public int size() {
+        return snapshot().docs.length;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                long started = System.currentTimeMillis();
+                for (EmployeeSearchInfoDTO employee : employeeRepository.findAllSearchInfo()) {
+                    employees.put(employee.getEmployeeNumber(), employee);
+                }
+                snapshot = new Snapshot(employees.values());
+                logger.info("Employee search index built: {} employees, {} keys, {} trigrams in {} ms",
+                        snapshot.docs.length, snapshot.keys.length, snapshot.grams.size(),
+                        System.currentTimeMillis() - started);
+            }
+            return snapshot;
+        }
+    }
+
+    private synchronized void apply(List<EmployeeSearchInfoDTO> changed) {
+        if (snapshot == null) {
+            return; // not built yet; the build sees the committed rows
+        }
+        for (EmployeeSearchInfoDTO employee : changed) {
+            employees.put(employee.getEmployeeNumber(), employee);
+        }
+        snapshot = new Snapshot(employees.values());
+    }
+
+    /**
+     * Lowercases, strips accents and keeps only letters and digits.
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder normalized = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = Character.toLowerCase(stripped.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * One immutable build of the index. Document ids follow the result order
+     * for equal scores (last name, first name, employee number).
+     */
+    static final class Snapshot {
+
+        final EmployeeSearchInfoDTO[] docs;
+
+        // Normalized terms of each document, by field ordinal
+        final String[][][] terms;
+
+        // Sorted (key, document, field) entries for prefix search
+        final String[] keys;
+        final int[] keyDocs;
+        final byte[] keyFields;
+
+        // Trigram -> sorted document ids
+        final Map<String, int[]> grams;
+
+        Snapshot(Collection<EmployeeSearchInfoDTO> employees) {
+            // Sort once on precomputed keys rather than normalizing in the comparator
+            EmployeeSearchInfoDTO[] unsorted = employees.toArray(new EmployeeSearchInfoDTO[0]);
+            String[] sortKeys = new String[unsorted.length];
+            Integer[] order = new Integer[unsorted.length];
+            for (int i = 0; i < unsorted.length; i++) {
+                sortKeys[i] = normalize(unsorted[i].getLastName()) + '\0' + normalize(unsorted[i].getFirstName())
+                        + '\0' + unsorted[i].getEmployeeNumber();
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing((Integer i) -> sortKeys[i]));
+            docs = new EmployeeSearchInfoDTO[unsorted.length];
+            for (int i = 0; i < order.length; i++) {
+                docs[i] = unsorted[order[i]];
+            }
+
+            Field[] fields = Field.values();
+            terms = new String[docs.length][][];
+            List<String> entryKeys = new ArrayList<>();
+            IntList entryDocs = new IntList();
+            IntList entryFields = new IntList();
+            Map<String, IntList> postings = new HashMap<>();
+            for (int doc = 0; doc < docs.length; doc++) {
+                terms[doc] = new String[fields.length][];
+                for (Field field : fields) {
+                    String[] fieldTerms = terms(docs[doc], field);
+                    terms[doc][field.ordinal()] = fieldTerms;
+                    for (String term : fieldTerms) {
+                        entryKeys.add(term);
+                        entryDocs.add(doc);
+                        entryFields.add(field.ordinal());
+                        for (int i = 0; i + 3 <= term.length(); i++) {
+                            // Documents arrive in order, so each list stays sorted and distinct
+                            IntList list = postings.computeIfAbsent(term.substring(i, i + 3), key -> new IntList());
+                            if (list.size == 0 || list.values[list.size - 1] != doc) {
+                                list.add(doc);
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Stable sort by key keeps the document order within equal keys
+            Integer[] entries = new Integer[entryKeys.size()];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = i;
+            }
+            Arrays.sort(entries, Comparator.comparing((Integer i) -> entryKeys.get(i)));
+            keys = new String[entries.length];
+            keyDocs = new int[entries.length];
+            keyFields = new byte[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                keys[i] = entryKeys.get(entries[i]);
+                keyDocs[i] = entryDocs.values[entries[i]];
+                keyFields[i] = (byte) entryFields.values[entries[i]];
+            }
+
+            grams = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, list) -> grams.put(gram, list.toArray()));
+        }
+
+        private static String[] terms(EmployeeSearchInfoDTO employee, Field field) {
+            String value;
+            switch (field) {
+                case EMPLOYEE_NUMBER:
+                    value = employee.getEmployeeNumber();
+                    break;
+                case SSS:
+                    value = employee.getSss();
+                    break;
+                case TIN:
+                    value = employee.getTin();
+                    break;
+                case LAST_NAME:
+                    return nameTerms(employee.getLastName());
+                default:
+                    return nameTerms(employee.getFirstName());
+            }
+            String term = normalize(value);
+            return term.isEmpty() ? new String[0] : new String[] { term };
+        }
+
+        // Each word of a name, plus the whole name when it has several words
+        private static String[] nameTerms(String name) {
+            List<String> terms = new ArrayList<>();
+            StringBuilder whole = new StringBuilder();
+            for (String word : WORD_SEPARATOR.split(name == null ? "" : name)) {
+                String term = normalize(word);
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                    whole.append(term);
+                }
+            }
+            if (terms.size() > 1) {
+                terms.add(whole.toString());
+            }
+            return terms.toArray(new String[0]);
+        }
+
+        List<EmployeeSearchResultDTO> search(List<String> tokens, int limit) {
+            // Summed score and best field of each document matching every token so far
+            Map<Integer, Match> matches = match(tokens.get(0));
+            for (int t = 1; t < tokens.size() && !matches.isEmpty(); t++) {
+                Map<Integer, Match> tokenMatches = match(tokens.get(t));
+                matches.keySet().retainAll(tokenMatches.keySet());
+                for (Match match : matches.values()) {
+                    match.score += tokenMatches.get(match.doc).score;
+                }
+            }
+
+            // Keep the best few by score, then document order, without sorting every match
+            Match[] top = new Match[Math.min(limit, matches.size())];
+            int count = 0;
+            for (Match match : matches.values()) {
+                if (count == top.length && !ranksBefore(match, top[count - 1])) {
+                    continue;
+                }
+                int at = count < top.length ? count++ : count - 1;
+                while (at > 0 && ranksBefore(match, top[at - 1])) {
+                    top[at] = top[at - 1];
+                    at--;
+                }
+                top[at] = match;
+            }
+
+            List<EmployeeSearchResultDTO> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                EmployeeSearchInfoDTO employee = docs[top[i].doc];
+                results.add(new EmployeeSearchResultDTO(employee.getEmployeeNumber(), employee.getLastName(),
+                        employee.getFirstName(), employee.getPosition(), top[i].field.name(), top[i].score));
+            }
+            return results;
+        }
+
+        private static boolean ranksBefore(Match match, Match other) {
+            return match.score != other.score ? match.score > other.score : match.doc < other.doc;
+        }
+
+        // The best score and its field of each document matching one token, by document id
+        private Map<Integer, Match> match(String token) {
+            Map<Integer, Match> matches = new HashMap<>();
+            Field[] fields = Field.values();
+
+            // Prefix and exact matches from the sorted keys
+            for (int i = lowerBound(token); i < keys.length && keys[i].startsWith(token); i++) {
+                Field field = fields[keyFields[i]];
+                keep(matches, keyDocs[i], keys[i].length() == token.length() ? field.exact : field.prefix, field);
+            }
+
+            // Substring matches from the trigrams, checked against the terms
+            if (token.length() >= 3) {
+                for (int doc : candidates(token)) {
+                    for (Field field : fields) {
+                        for (String term : terms[doc][field.ordinal()]) {
+                            if (!term.startsWith(token) && term.contains(token)) {
+                                keep(matches, doc, field.substring, field);
+                            }
+                        }
+                    }
+                }
+            }
+            return matches;
+        }
+
+        private static void keep(Map<Integer, Match> matches, int doc, int score, Field field) {
+            Match match = matches.computeIfAbsent(doc, Match::new);
+            if (score > match.score) {
+                match.score = score;
+                match.field = field;
+            }
+        }
+
+        // Documents containing every trigram of the token
+        private int[] candidates(String token) {
+            List<int[]> lists = new ArrayList<>();
+            for (int i = 0; i + 3 <= token.length(); i++) {
+                int[] list = grams.get(token.substring(i, i + 3));
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            int[] result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i));
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] result = new int[Math.min(a.length, b.length)];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    result[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, n);
+        }
+
+        // Index of the first key >= the token
+        private int lowerBound(String token) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(token) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // A document's score and best-scoring field for a query
+        private static final class Match {
+            final int doc;
+            int score;
+            Field field;
+
+            Match(int doc) {
+                this.doc = doc;
+            }
+        }
+
+        // Growable list of ints, to avoid boxing while building and searching
+        private static final class IntList {
+            int[] values = new int[4];
+            int size;
+
+            void add(int value) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+
+            int[] toArray() {
+                return Arrays.copyOf(values, size);
+            }
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.imperionite.cp2a.services;
 
 import com.imperionite.cp2a.entities.Employee;
+import com.imperionite.cp2a.dtos.AdminEmployeeDTO;
+import com.imperionite.cp2a.dtos.EmployeeBasicInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeOrgInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeePageDTO;
 import com.imperionite.cp2a.dtos.EmployeePartialDetailsDTO;
+import com.imperionite.cp2a.dtos.EmployeePayrollInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeSearchInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeSearchResultDTO;
+import com.imperionite.cp2a.dtos.EmployeeSummaryDTO;
+import com.imperionite.cp2a.dtos.ReportingNodeDTO;
 import com.imperionite.cp2a.entities.User;
 import com.imperionite.cp2a.repositories.EmployeeRepository;
 import com.imperionite.cp2a.repositories.UserRepository;
@@ -10,26 +19,58 @@
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 
 @Service
 public class EmployeeService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Columns the paged employee list may be sorted by
+    static final Set<String> SORTABLE_FIELDS = Set.of("id", "employeeNumber", "lastName", "firstName", "birthday",
+            "status", "position", "immediateSupervisor");
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private ReportingHierarchy reportingHierarchy;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
     @Transactional
     public Employee createEmployee(Employee employee) {
         Optional<User> userOpt = userRepository.findById(employee.getUser().getId());
         if (userOpt.isPresent()) {
             employee.setUser(userOpt.get());
-            return employeeRepository.save(employee);
+            Employee saved = employeeRepository.save(employee);
+            // Any method that changes an employee must invalidate its cache entry, reindex it, report
+            // it to the hierarchy and move the employee data version
+            employeeCache.invalidate(saved.getEmployeeNumber());
+            employeeSearchIndex.record(List.of(toSearchInfo(saved)));
+            reportingHierarchy.record(List.of(toOrgInfo(saved)));
+            dataVersionTracker.recordChange(DataVersionTracker.Dataset.EMPLOYEES);
+            return saved;
         } else {
             throw new EntityNotFoundException("User not found for ID: " + employee.getUser().getId());
         }
@@ -51,21 +92,184 @@ public Optional<Employee> getEmployeeByEmployeeNumber(String employeeNumber) {
         return employeeRepository.findByEmployeeNumber(employeeNumber);
     }
 
+    /**
+     * Returns the payroll attributes of an employee from the {@link EmployeeCache}
+     * (a map read once cached). The result is shared and must not be modified.
+     */
+    public Optional<EmployeePayrollInfoDTO> getEmployeePayrollInfo(String employeeNumber) {
+        return employeeCache.get(employeeNumber);
+    }
+
+    /**
+     * Returns a detached employee carrying only the cached payroll attributes
+     * (number, names, status, position, salary and rates), for the salary and
+     * deduction calculations. It has no user and must not be saved.
+     */
+    public Optional<Employee> getPayrollEmployee(String employeeNumber) {
+        return employeeCache.get(employeeNumber).map(EmployeeService::toPayrollEmployee);
+    }
+
+    /**
+     * Same as {@link #getPayrollEmployee(String)} for several employees; the
+     * cache misses are loaded with one query.
+     *
+     * @return The employees by employee number; unknown employees are absent.
+     */
+    public Map<String, Employee> getPayrollEmployees(Collection<String> employeeNumbers) {
+        Map<String, Employee> employees = new HashMap<>();
+        employeeCache.getAll(employeeNumbers)
+                .forEach((employeeNumber, info) -> employees.put(employeeNumber, toPayrollEmployee(info)));
+        return employees;
+    }
+
+    /**
+     * Same as {@link #getPayrollEmployee(String)} for every employee, read with
+     * one query (no user join) rather than through the cache.
+     *
+     * @return The employees in employee number order.
+     */
+    public List<Employee> getAllPayrollEmployees() {
+        return employeeRepository.findAllPayrollInfo().stream().map(EmployeeService::toPayrollEmployee).toList();
+    }
+
+    private static Employee toPayrollEmployee(EmployeePayrollInfoDTO info) {
+        Employee employee = new Employee();
+        employee.setId(info.getId());
+        employee.setEmployeeNumber(info.getEmployeeNumber());
+        employee.setLastName(info.getLastName());
+        employee.setFirstName(info.getFirstName());
+        employee.setStatus(info.getStatus());
+        employee.setPosition(info.getPosition());
+        employee.setBasicSalary(info.getBasicSalary());
+        employee.setGrossSemiMonthlyRate(info.getGrossSemiMonthlyRate());
+        employee.setHourlyRate(info.getHourlyRate());
+        return employee;
+    }
+
+    /**
+     * Id, number, names and birthday of every employee, selected as columns
+     * without the user join.
+     */
+    public List<EmployeeBasicInfoDTO> getAllEmployeeBasicInfo() {
+        return employeeRepository.findAllBasicInfo();
+    }
+
+    public Optional<EmployeeBasicInfoDTO> getEmployeeBasicInfo(String employeeNumber) {
+        return employeeRepository.findBasicInfoByEmployeeNumber(employeeNumber);
+    }
+
+    /**
+     * Admin list rows: basic info and the user's id, username and flags, in one
+     * column-only query.
+     */
+    public List<AdminEmployeeDTO> getAllAdminEmployees() {
+        return employeeRepository.findAllAdminInfo();
+    }
+
     public List<EmployeePartialDetailsDTO> getAllEmployeePartialDetails() {
-        List<Employee> employees = employeeRepository.findAll();
-        return employees.stream()
-                .map(emp -> new EmployeePartialDetailsDTO(
-                        emp.getId(), 
-                        emp.getEmployeeNumber(),
-                        emp.getLastName(),
-                        emp.getFirstName(),
-                        emp.getSss(),
-                        emp.getPhilhealth(),
-                        emp.getTin(),
-                        emp.getPagibig(),
-                        emp.getUser()
-                ))
-                .toList();
-    }
-
-}
\ No newline at end of file
+        return employeeRepository.findAllPartialDetails();
+    }
+
+    /**
+     * Returns one page of employees matching the given filters, sorted by one
+     * column (employee number as a tie-breaker). The rows are a column
+     * projection without the user join, and the total comes from a COUNT over
+     * the same filters.
+     *
+     * @param status     Exact status, or null for any.
+     * @param position   Exact position, or null for any.
+     * @param supervisor Exact immediate supervisor, or null for any.
+     * @param name       Prefix of the last or first name, or null for any.
+     * @param page       The 0-based page number.
+     * @param size       The page size, 1 to {@link #MAX_PAGE_SIZE}.
+     * @param sort       The field to sort by (see {@link #SORTABLE_FIELDS}).
+     * @param direction  "asc" or "desc".
+     * @return The page.
+     * @throws IllegalArgumentException If the page, size, sort field or
+     *                                  direction is invalid.
+     */
+    public EmployeePageDTO searchEmployees(String status, String position, String supervisor, String name,
+            int page, int size, String sort, String direction) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative.");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("sort must be one of " + SORTABLE_FIELDS + ".");
+        }
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new IllegalArgumentException("direction must be asc or desc."));
+
+        Sort order = Sort.by(sortDirection, sort);
+        if (!sort.equals("employeeNumber")) {
+            order = order.and(Sort.by(Sort.Direction.ASC, "employeeNumber"));
+        }
+        Page<EmployeeSummaryDTO> result = employeeRepository.searchSummaries(blankToNull(status),
+                blankToNull(position), blankToNull(supervisor), toPrefixPattern(name),
+                PageRequest.of(page, size, order));
+        return new EmployeePageDTO(result.getContent(), page, size, result.getTotalElements(),
+                result.getTotalPages());
+    }
+
+    /**
+     * Typeahead search over employee numbers, names, SSS and TIN, served from
+     * the in-memory {@link EmployeeSearchIndex}.
+     *
+     * @param query The partial number, name or id.
+     * @param limit The maximum number of results.
+     * @return The ranked matches.
+     */
+    public List<EmployeeSearchResultDTO> searchEmployeesByText(String query, int limit) {
+        return employeeSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Employees reporting directly to an employee, from the in-memory
+     * {@link ReportingHierarchy}. Empty when there is no such employee.
+     */
+    public Optional<List<ReportingNodeDTO>> getDirectReports(String employeeNumber) {
+        return reportingHierarchy.getDirectReports(employeeNumber);
+    }
+
+    /**
+     * Everyone under an employee, directly or indirectly, each manager before
+     * their reports. Empty when there is no such employee.
+     */
+    public Optional<List<ReportingNodeDTO>> getAllReports(String employeeNumber) {
+        return reportingHierarchy.getAllReports(employeeNumber);
+    }
+
+    /**
+     * An employee's supervisors, nearest first, up to the top of the hierarchy.
+     * Empty when there is no such employee.
+     */
+    public Optional<List<ReportingNodeDTO>> getManagementChain(String employeeNumber) {
+        return reportingHierarchy.getManagementChain(employeeNumber);
+    }
+
+    static EmployeeSearchInfoDTO toSearchInfo(Employee employee) {
+        return new EmployeeSearchInfoDTO(employee.getEmployeeNumber(), employee.getLastName(),
+                employee.getFirstName(), employee.getPosition(), employee.getSss(), employee.getTin());
+    }
+
+    static EmployeeOrgInfoDTO toOrgInfo(Employee employee) {
+        return new EmployeeOrgInfoDTO(employee.getEmployeeNumber(), employee.getLastName(),
+                employee.getFirstName(), employee.getPosition(), employee.getImmediateSupervisor());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // LIKE pattern matching values that start with the prefix; ! escapes the wildcards
+    private static String toPrefixPattern(String prefix) {
+        String value = blankToNull(prefix);
+        if (value == null) {
+            return null;
+        }
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+}
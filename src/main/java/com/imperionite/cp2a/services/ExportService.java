@@ -0,0 +1,149 @@
+// ExportService.java
+package com.imperionite.cp2a.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.imperionite.cp2a.dtos.PayrollEntryDTO;
+
+/**
+ * Writes CSV exports for auditors straight to an output stream.
+ *
+ * The attendance dump reads rows through a forward-only JDBC cursor and
+ * formats each one as it arrives, in the {@code attendance_records.csv} layout
+ * so it can be imported again. Payroll registers are written period by period
+ * from {@link PayrollRunService}. Neither builds a list of the whole export, so
+ * memory does not grow with the range.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    static final String[] PAYROLL_HEADERS = { "EmployeeNumber", "LastName", "FirstName", "StartDate", "EndDate",
+            "WorkedHours", "GrossSalary", "SSS", "PhilHealth", "PagIbig", "WithholdingTax", "TotalDeductions",
+            "NetSalary" };
+
+    private static final String ATTENDANCE_SQL = "SELECT employee_number, last_name, first_name, date, log_in, "
+            + "log_out FROM attendance WHERE date BETWEEN ? AND ? ORDER BY date, employee_number";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    /**
+     * Writes the attendance of a date range as CSV, ordered by date and employee
+     * number.
+     *
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate   The end date of the range (inclusive).
+     * @param out       The destination; flushed but not closed.
+     * @return The number of records written.
+     * @throws IOException If writing fails (e.g. the client disconnected).
+     */
+    public long writeAttendanceCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        CSVPrinter printer = printer(out, AttendanceImportService.HEADERS);
+        long[] rows = { 0 };
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(ATTENDANCE_SQL);
+                statement.setFetchSize(1000);
+                statement.setObject(1, startDate);
+                statement.setObject(2, endDate);
+                return statement;
+            }, resultSet -> {
+                try {
+                    printer.printRecord(resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                            resultSet.getObject(4, LocalDate.class).format(DATE_FORMAT),
+                            resultSet.getTime(5).toLocalTime().format(TIME_FORMAT),
+                            resultSet.getTime(6).toLocalTime().format(TIME_FORMAT));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        printer.flush();
+        logger.info("Exported {} attendance records between {} and {}", rows[0], startDate, endDate);
+        return rows[0];
+    }
+
+    /**
+     * Writes the weekly payroll register of every Monday-Sunday week in a range
+     * as CSV.
+     *
+     * @param startDate The start date (a Monday) of the first week.
+     * @param endDate   The end date (a Sunday) of the last week.
+     * @param out       The destination; flushed but not closed.
+     * @throws IOException If writing fails (e.g. the client disconnected).
+     */
+    public void writeWeeklyPayrollCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        writePayrollCsv(out, consumer -> payrollRunService.forEachWeeklyEntry(startDate, endDate, consumer));
+    }
+
+    /**
+     * Writes the monthly payroll register of every month in a range as CSV.
+     *
+     * @param from The first month.
+     * @param to   The last month (inclusive).
+     * @param out  The destination; flushed but not closed.
+     * @throws IOException If writing fails (e.g. the client disconnected).
+     */
+    public void writeMonthlyPayrollCsv(YearMonth from, YearMonth to, OutputStream out) throws IOException {
+        writePayrollCsv(out, consumer -> payrollRunService.forEachMonthlyEntry(from, to, consumer));
+    }
+
+    private void writePayrollCsv(OutputStream out, Consumer<Consumer<PayrollEntryDTO>> run) throws IOException {
+        CSVPrinter printer = printer(out, PAYROLL_HEADERS);
+        long[] rows = { 0 };
+        try {
+            run.accept(entry -> {
+                try {
+                    printer.printRecord(entry.getEmployeeNumber(), entry.getLastName(), entry.getFirstName(),
+                            entry.getStartDate(), entry.getEndDate(), entry.getWorkedHours(),
+                            entry.getGrossSalary(), entry.getSssDeduction(), entry.getPhilhealthDeduction(),
+                            entry.getPagibigDeduction(), entry.getWithholdingTax(), entry.getTotalDeductions(),
+                            entry.getNetSalary());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        printer.flush();
+        logger.info("Exported {} payroll register lines", rows[0]);
+    }
+
+    private static CSVPrinter printer(OutputStream out, String[] headers) throws IOException {
+        return CSVFormat.Builder.create(CSVFormat.DEFAULT)
+                .setHeader(headers)
+                .build()
+                .print(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,262 @@
+// PayPeriod.java
+package com.imperionite.cp2a.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+import com.imperionite.cp2a.services.PayrollContext.PeriodType;
+
+/**
+ * A pay period: its type and its first and last dates.
+ *
+ * Weekly periods lie within one Monday-Sunday week, semi-monthly periods
+ * within the 1st-15th or the 16th-end of a month, and monthly periods within
+ * one calendar month. A period may be shorter than its span, so the clipped
+ * first and last cut-offs of the attendance calendar are valid periods of
+ * their type. Custom periods are any date range.
+ *
+ * Contributions are monthly amounts; {@link #prorate(long)} gives the share
+ * due for the period.
+ */
+public final class PayPeriod {
+
+    /** The last day of the first half of a month. */
+    public static final int FIRST_HALF_END_DAY = 15;
+
+    private final PeriodType type;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    // Unchecked; the factories validate the dates
+    private PayPeriod(PeriodType type, LocalDate startDate, LocalDate endDate) {
+        this.type = type;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Creates a weekly period.
+     *
+     * @param startDate The first date.
+     * @param endDate   The last date, in the same Monday-Sunday week.
+     * @return The period.
+     * @throws IllegalArgumentException If the dates are not within one
+     *                                  Monday-Sunday week.
+     */
+    public static PayPeriod weekly(LocalDate startDate, LocalDate endDate) {
+        checkOrder(startDate, endDate);
+        if (!startDate.with(DayOfWeek.MONDAY).equals(endDate.with(DayOfWeek.MONDAY))) {
+            throw new IllegalArgumentException("Start and end date must fall within one Monday-Sunday week.");
+        }
+        return new PayPeriod(PeriodType.WEEKLY, startDate, endDate);
+    }
+
+    /**
+     * Creates a semi-monthly period.
+     *
+     * @param startDate The first date.
+     * @param endDate   The last date, in the same half of the same month.
+     * @return The period.
+     * @throws IllegalArgumentException If the dates are not within the 1st-15th
+     *                                  or the 16th-end of one month.
+     */
+    public static PayPeriod semiMonthly(LocalDate startDate, LocalDate endDate) {
+        checkOrder(startDate, endDate);
+        if (!YearMonth.from(startDate).equals(YearMonth.from(endDate)) || half(startDate) != half(endDate)) {
+            throw new IllegalArgumentException(
+                    "Start and end date must fall within the 1st-15th or the 16th-end of one month.");
+        }
+        return new PayPeriod(PeriodType.SEMI_MONTHLY, startDate, endDate);
+    }
+
+    /**
+     * Creates the semi-monthly period of one half of a month.
+     *
+     * @param yearMonth The month.
+     * @param half      1 for the 1st-15th, 2 for the 16th to the end of the month.
+     * @return The period.
+     * @throws IllegalArgumentException If the half is not 1 or 2.
+     */
+    public static PayPeriod semiMonthly(YearMonth yearMonth, int half) {
+        if (half == 1) {
+            return new PayPeriod(PeriodType.SEMI_MONTHLY, yearMonth.atDay(1), yearMonth.atDay(FIRST_HALF_END_DAY));
+        }
+        if (half == 2) {
+            return new PayPeriod(PeriodType.SEMI_MONTHLY, yearMonth.atDay(FIRST_HALF_END_DAY + 1),
+                    yearMonth.atEndOfMonth());
+        }
+        throw new IllegalArgumentException("Half must be 1 (1st-15th) or 2 (16th-end of month).");
+    }
+
+    /**
+     * Creates a monthly period.
+     *
+     * @param startDate The first date.
+     * @param endDate   The last date, in the same month.
+     * @return The period.
+     * @throws IllegalArgumentException If the dates are not within one month.
+     */
+    public static PayPeriod monthly(LocalDate startDate, LocalDate endDate) {
+        checkOrder(startDate, endDate);
+        if (!YearMonth.from(startDate).equals(YearMonth.from(endDate))) {
+            throw new IllegalArgumentException("Start and end date must fall within one month.");
+        }
+        return new PayPeriod(PeriodType.MONTHLY, startDate, endDate);
+    }
+
+    /**
+     * Creates the monthly period of a whole calendar month.
+     *
+     * @param yearMonth The month.
+     * @return The period.
+     */
+    public static PayPeriod monthly(YearMonth yearMonth) {
+        return new PayPeriod(PeriodType.MONTHLY, yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    }
+
+    /**
+     * Creates a custom period.
+     *
+     * @param startDate The first date.
+     * @param endDate   The last date.
+     * @return The period.
+     * @throws IllegalArgumentException If the end date is before the start date.
+     */
+    public static PayPeriod custom(LocalDate startDate, LocalDate endDate) {
+        checkOrder(startDate, endDate);
+        return new PayPeriod(PeriodType.CUSTOM, startDate, endDate);
+    }
+
+    /**
+     * Returns the whole weekly, semi-monthly or monthly period containing a date.
+     *
+     * @param type The period type; not custom.
+     * @param date The date.
+     * @return The period.
+     * @throws IllegalArgumentException If the type is custom.
+     */
+    public static PayPeriod containing(PeriodType type, LocalDate date) {
+        switch (type) {
+            case WEEKLY:
+                LocalDate monday = date.with(DayOfWeek.MONDAY);
+                return new PayPeriod(PeriodType.WEEKLY, monday, monday.plusDays(6));
+            case SEMI_MONTHLY:
+                return semiMonthly(YearMonth.from(date), half(date));
+            case MONTHLY:
+                return monthly(YearMonth.from(date));
+            default:
+                throw new IllegalArgumentException("A custom period has no cut-off containing a date.");
+        }
+    }
+
+    /**
+     * Creates a period of the given type, validated as by the type's factory.
+     *
+     * @param type      The period type.
+     * @param startDate The first date.
+     * @param endDate   The last date.
+     * @return The period.
+     * @throws IllegalArgumentException If the dates do not fit the type.
+     */
+    public static PayPeriod of(PeriodType type, LocalDate startDate, LocalDate endDate) {
+        switch (type) {
+            case WEEKLY:
+                return weekly(startDate, endDate);
+            case SEMI_MONTHLY:
+                return semiMonthly(startDate, endDate);
+            case MONTHLY:
+                return monthly(startDate, endDate);
+            default:
+                return custom(startDate, endDate);
+        }
+    }
+
+    public PeriodType getType() {
+        return type;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return The number of calendar days in the period.
+     */
+    public long getDays() {
+        return ChronoUnit.DAYS.between(startDate, endDate) + 1;
+    }
+
+    /**
+     * Returns the share of a monthly amount due for this period: a quarter for
+     * weekly periods, a half for semi-monthly periods and all of it for monthly
+     * periods. Custom periods pay, for every month they touch, the fraction of
+     * that month's days they cover. Each share is rounded half-up to the
+     * centavo.
+     *
+     * @param monthlyAmount The monthly amount, in centavos.
+     * @return The period's share, in centavos.
+     */
+    public long prorate(long monthlyAmount) {
+        switch (type) {
+            case WEEKLY:
+                return Centavos.divideHalfUp(monthlyAmount, 4);
+            case SEMI_MONTHLY:
+                return Centavos.divideHalfUp(monthlyAmount, 2);
+            case MONTHLY:
+                return monthlyAmount;
+            default:
+                long share = 0;
+                for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate));
+                        month = month.plusMonths(1)) {
+                    LocalDate from = startDate.isAfter(month.atDay(1)) ? startDate : month.atDay(1);
+                    LocalDate to = endDate.isBefore(month.atEndOfMonth()) ? endDate : month.atEndOfMonth();
+                    long days = ChronoUnit.DAYS.between(from, to) + 1;
+                    share += Centavos.divideHalfUp(Math.multiplyExact(monthlyAmount, days), month.lengthOfMonth());
+                }
+                return share;
+        }
+    }
+
+    private static int half(LocalDate date) {
+        return date.getDayOfMonth() <= FIRST_HALF_END_DAY ? 1 : 2;
+    }
+
+    private static void checkOrder(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date are required.");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date.");
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PayPeriod)) {
+            return false;
+        }
+        PayPeriod period = (PayPeriod) other;
+        return type == period.type && Objects.equals(startDate, period.startDate)
+                && Objects.equals(endDate, period.endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, startDate, endDate);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + startDate + " - " + endDate;
+    }
+}
@@ -0,0 +1,87 @@
+// PayrollContext.java
+package com.imperionite.cp2a.services;
+
+import java.time.LocalDate;
+
+import com.imperionite.cp2a.entities.Employee;
+
+import lombok.Getter;
+
+/**
+ * Holds everything needed to compute one employee's pay for one period: the
+ * employee, the {@link PayPeriod} and the period's worked hours, read once
+ * from the employee's {@link DailyWorkSeries}.
+ * Intermediate results (gross pay, monthly contributions, tax) are memoized
+ * here as the services compute them, so a payslip never reloads the employee
+ * or recomputes a deduction.
+ *
+ * A context is meant for a single request or a single entry of a payroll run
+ * and is not thread-safe.
+ */
+@Getter
+public class PayrollContext {
+
+    public enum PeriodType {
+        WEEKLY, SEMI_MONTHLY, MONTHLY, CUSTOM
+    }
+
+    private final Employee employee;
+    private final PayPeriod period;
+    private final long workedCentiHours;
+
+    /** Marks a memoized result that has not been computed yet. */
+    static final long NOT_COMPUTED = Long.MIN_VALUE;
+
+    // Memoized intermediate results in centavos, filled in lazily by the services
+    private long grossCentavos = NOT_COMPUTED;
+    private long monthlySssCentavos = NOT_COMPUTED;
+    private long monthlyPhilHealthCentavos = NOT_COMPUTED;
+    private long monthlyPagIbigCentavos = NOT_COMPUTED;
+    private long withholdingTaxCentavos = NOT_COMPUTED;
+
+    /**
+     * Creates a context for a validated period whose worked hours were already
+     * read (e.g. from a {@link DailyWorkSeries}).
+     */
+    public PayrollContext(Employee employee, PayPeriod period, long workedCentiHours) {
+        this.employee = employee;
+        this.period = period;
+        this.workedCentiHours = workedCentiHours;
+    }
+
+    public PeriodType getPeriodType() {
+        return period.getType();
+    }
+
+    public LocalDate getStartDate() {
+        return period.getStartDate();
+    }
+
+    public LocalDate getEndDate() {
+        return period.getEndDate();
+    }
+
+    public boolean isWeekly() {
+        return period.getType() == PeriodType.WEEKLY;
+    }
+
+    void setGrossCentavos(long grossCentavos) {
+        this.grossCentavos = grossCentavos;
+    }
+
+    void setMonthlySssCentavos(long monthlySssCentavos) {
+        this.monthlySssCentavos = monthlySssCentavos;
+    }
+
+    void setMonthlyPhilHealthCentavos(long monthlyPhilHealthCentavos) {
+        this.monthlyPhilHealthCentavos = monthlyPhilHealthCentavos;
+    }
+
+    void setMonthlyPagIbigCentavos(long monthlyPagIbigCentavos) {
+        this.monthlyPagIbigCentavos = monthlyPagIbigCentavos;
+    }
+
+    void setWithholdingTaxCentavos(long withholdingTaxCentavos) {
+        this.withholdingTaxCentavos = withholdingTaxCentavos;
+    }
+}
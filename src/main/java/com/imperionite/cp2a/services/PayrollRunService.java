@@ -0,0 +1,162 @@
+// PayrollRunService.java
+package com.imperionite.cp2a.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.imperionite.cp2a.dtos.PayrollEntryDTO;
+import com.imperionite.cp2a.entities.Employee;
+
+/**
+ * Computes payroll for the whole workforce in one pass.
+ * A run loads the payroll attributes of all employees with one query (no
+ * user join) and reads each employee's worked hours for the period from their
+ * {@link DailyWorkSeries} in memory, then applies the same rules as
+ * {@link SalaryService}, {@link AttendanceService} and
+ * {@link DeductionsService} through a {@link PayrollContext} per employee, so
+ * the number of queries does not grow with the number of employees or periods.
+ */
+@Service
+public class PayrollRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollRunService.class);
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private SalaryService salaryService;
+
+    /**
+     * Runs the weekly payroll of every employee.
+     *
+     * @param startDate The start date (Monday) of the week.
+     * @param endDate   The end date (Sunday) of the week; a clipped week may end
+     *                  earlier.
+     * @return One payroll entry per employee, in employee number order.
+     * @throws IllegalArgumentException If the dates are not within one
+     *                                  Monday-Sunday week or an employee's salary
+     *                                  data is missing.
+     */
+    public List<PayrollEntryDTO> runWeeklyPayroll(LocalDate startDate, LocalDate endDate) {
+        return runPayroll(PayPeriod.weekly(startDate, endDate));
+    }
+
+    /**
+     * Runs the monthly payroll of every employee.
+     *
+     * @param yearMonth The month and year of the run.
+     * @return One payroll entry per employee, in employee number order.
+     * @throws IllegalArgumentException If an employee's salary data is missing.
+     */
+    public List<PayrollEntryDTO> runMonthlyPayroll(YearMonth yearMonth) {
+        return runPayroll(PayPeriod.monthly(yearMonth));
+    }
+
+    /**
+     * Runs the payroll of every employee for any pay period.
+     *
+     * @param period The pay period.
+     * @return One payroll entry per employee, in employee number order.
+     * @throws IllegalArgumentException If an employee's salary data is missing.
+     */
+    public List<PayrollEntryDTO> runPayroll(PayPeriod period) {
+        List<Employee> employees = sortedEmployees();
+        List<PayrollEntryDTO> entries = new ArrayList<>(employees.size());
+        runPayroll(employees, period, entries::add);
+
+        logger.info("Payroll run for {} computed for {} employees", period, entries.size());
+        return entries;
+    }
+
+    /**
+     * Streams the weekly payroll of every employee for each Monday-Sunday week of
+     * a range, week by week and in employee number order within a week.
+     *
+     * @param startDate The start date (a Monday) of the first week.
+     * @param endDate   The end date (a Sunday) of the last week.
+     * @param consumer  Receives each payroll entry.
+     * @throws IllegalArgumentException If the dates are not Monday and Sunday or
+     *                                  an employee's salary data is missing.
+     */
+    public void forEachWeeklyEntry(LocalDate startDate, LocalDate endDate, Consumer<PayrollEntryDTO> consumer) {
+        checkWeeklyRange(startDate, endDate);
+
+        List<Employee> employees = sortedEmployees();
+        for (LocalDate weekStart = startDate; weekStart.isBefore(endDate); weekStart = weekStart.plusWeeks(1)) {
+            runPayroll(employees, PayPeriod.weekly(weekStart, weekStart.plusDays(6)), consumer);
+        }
+    }
+
+    /**
+     * Streams the monthly payroll of every employee for each month of a range,
+     * month by month and in employee number order within a month.
+     *
+     * @param from     The first month.
+     * @param to       The last month (inclusive).
+     * @param consumer Receives each payroll entry.
+     * @throws IllegalArgumentException If the range is empty or an employee's
+     *                                  salary data is missing.
+     */
+    public void forEachMonthlyEntry(YearMonth from, YearMonth to, Consumer<PayrollEntryDTO> consumer) {
+        checkMonthlyRange(from, to);
+
+        List<Employee> employees = sortedEmployees();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            runPayroll(employees, PayPeriod.monthly(month), consumer);
+        }
+    }
+
+    /**
+     * Validates a range of whole weeks for {@link #forEachWeeklyEntry}.
+     *
+     * @throws IllegalArgumentException If the range does not start on a Monday
+     *                                  and end on a later Sunday.
+     */
+    public void checkWeeklyRange(LocalDate startDate, LocalDate endDate) {
+        if (!startDate.getDayOfWeek().equals(DayOfWeek.MONDAY) || !endDate.getDayOfWeek().equals(DayOfWeek.SUNDAY)
+                || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Start date must be a Monday and end date a later Sunday.");
+        }
+    }
+
+    /**
+     * Validates a range of months for {@link #forEachMonthlyEntry}.
+     *
+     * @throws IllegalArgumentException If the last month is before the first.
+     */
+    public void checkMonthlyRange(YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The last month must not be before the first month.");
+        }
+    }
+
+    /**
+     * Computes one payroll entry per employee for a period, reading the worked
+     * hours from each employee's daily work series so no further queries are
+     * made.
+     */
+    private void runPayroll(List<Employee> employees, PayPeriod period, Consumer<PayrollEntryDTO> consumer) {
+        for (Employee employee : employees) {
+            long workedCentiHours = attendanceService.getDailySeries(employee.getEmployeeNumber())
+                    .getCreditedCentiHours(period);
+            consumer.accept(salaryService.calculateNetSalary(new PayrollContext(employee, period, workedCentiHours)));
+        }
+    }
+
+    private List<Employee> sortedEmployees() {
+        return employeeService.getAllPayrollEmployees();
+    }
+}
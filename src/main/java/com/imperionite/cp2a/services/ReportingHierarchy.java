@@ -0,0 +1,345 @@
+// ReportingHierarchy.java
+package com.imperionite.cp2a.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.imperionite.cp2a.dtos.EmployeeOrgInfoDTO;
+import com.imperionite.cp2a.dtos.ReportingNodeDTO;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+/**
+ * The reporting hierarchy, resolved from the free-text immediate supervisor
+ * ("Last, First") of each employee.
+ *
+ * A supervisor name is matched to the employee whose last and first names,
+ * normalized as by {@link EmployeeSearchIndex#normalize(String)}, spell the
+ * same letters, so spacing and comma placement do not matter ("San, Jose
+ * Brad" is Brad San Jose). Names that match no one, or more than one
+ * employee, are left unresolved and the employee is placed at the top.
+ *
+ * Employees are numbered in pre-order, so everyone under a manager occupies
+ * one contiguous range of that order: a subtree is a single array lookup, and
+ * a management chain follows the parent array. The hierarchy is built with
+ * one query on startup (or on first use) and rebuilt by
+ * {@link #record(Collection)} when the writing transaction commits. Each
+ * build is an immutable snapshot, so reads never lock.
+ */
+@Component
+public class ReportingHierarchy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportingHierarchy.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    // Source of the snapshot, by employee number; guarded by this
+    private final Map<String, EmployeeOrgInfoDTO> employees = new HashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Builds the hierarchy once the application (including the data
+     * initializers) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        snapshot();
+    }
+
+    /**
+     * Reports employees that were created or changed. Inside a transaction the
+     * hierarchy is rebuilt after commit.
+     *
+     * @param changed The employees' current names, positions and supervisors.
+     */
+    public void record(Collection<EmployeeOrgInfoDTO> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<EmployeeOrgInfoDTO> copy = new ArrayList<>(changed);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(copy);
+                }
+            });
+        } else {
+            apply(copy);
+        }
+    }
+
+    /**
+     * Rebuilds the hierarchy from the database.
+     */
+    public synchronized void reload() {
+        employees.clear();
+        snapshot = null;
+        snapshot();
+    }
+
+    /**
+     * @return The employees reporting directly to an employee, by employee
+     *         number, or empty when there is no such employee.
+     */
+    public Optional<List<ReportingNodeDTO>> getDirectReports(String employeeNumber) {
+        Snapshot current = snapshot();
+        Integer node = current.nodes.get(employeeNumber);
+        return node == null ? Optional.empty() : Optional.of(current.toDTOs(current.children[node]));
+    }
+
+    /**
+     * @return Everyone under an employee, directly or indirectly, each manager
+     *         before their reports, or empty when there is no such employee.
+     */
+    public Optional<List<ReportingNodeDTO>> getAllReports(String employeeNumber) {
+        Snapshot current = snapshot();
+        Integer node = current.nodes.get(employeeNumber);
+        return node == null ? Optional.empty()
+                : Optional.of(current.toDTOs(current.subtree(node)));
+    }
+
+    /**
+     * @return The employee's supervisor, their supervisor and so on up to the
+     *         top, or empty when there is no such employee.
+     */
+    public Optional<List<ReportingNodeDTO>> getManagementChain(String employeeNumber) {
+        Snapshot current = snapshot();
+        Integer node = current.nodes.get(employeeNumber);
+        return node == null ? Optional.empty() : Optional.of(current.toDTOs(current.chain(node)));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                long started = System.currentTimeMillis();
+                for (EmployeeOrgInfoDTO employee : employeeRepository.findAllOrgInfo()) {
+                    employees.put(employee.getEmployeeNumber(), employee);
+                }
+                snapshot = build();
+                logger.info("Reporting hierarchy built: {} employees, {} at the top, {} unresolved supervisors "
+                        + "in {} ms", snapshot.infos.length, snapshot.roots, snapshot.unresolved,
+                        System.currentTimeMillis() - started);
+            }
+            return snapshot;
+        }
+    }
+
+    private synchronized void apply(List<EmployeeOrgInfoDTO> changed) {
+        if (snapshot == null) {
+            return; // not built yet; the build sees the committed rows
+        }
+        for (EmployeeOrgInfoDTO employee : changed) {
+            employees.put(employee.getEmployeeNumber(), employee);
+        }
+        snapshot = build();
+    }
+
+    private Snapshot build() {
+        Snapshot built = new Snapshot(employees.values());
+        if (built.unresolved > 0) {
+            logger.warn("{} employees have a supervisor name that matches no single employee", built.unresolved);
+        }
+        return built;
+    }
+
+    /**
+     * @return True when the supervisor field names no one (the top of the
+     *         hierarchy).
+     */
+    static boolean isTop(String supervisor) {
+        String normalized = EmployeeSearchIndex.normalize(supervisor);
+        return normalized.isEmpty() || normalized.equals("null") || normalized.equals("na");
+    }
+
+    /**
+     * One immutable build of the hierarchy. Node ids follow employee number
+     * order.
+     */
+    static final class Snapshot {
+
+        private static final int[] NONE = new int[0];
+
+        final EmployeeOrgInfoDTO[] infos;
+        final Map<String, Integer> nodes;
+
+        final int[] parent; // -1 at the top
+        final int[][] children; // by employee number
+        final int[] level;
+
+        // Pre-order numbering: node at each position, and each node's position
+        // and the end (exclusive) of its subtree's range
+        final int[] order;
+        final int[] position;
+        final int[] end;
+
+        final int roots;
+        final int unresolved;
+
+        Snapshot(Collection<EmployeeOrgInfoDTO> employees) {
+            infos = employees.toArray(new EmployeeOrgInfoDTO[0]);
+            Arrays.sort(infos, Comparator.comparing(EmployeeOrgInfoDTO::getEmployeeNumber));
+            int n = infos.length;
+            nodes = new HashMap<>(n * 2);
+
+            // Normalized "last first" -> node, or -2 when several employees share it
+            Map<String, Integer> byName = new HashMap<>(n * 2);
+            for (int node = 0; node < n; node++) {
+                nodes.put(infos[node].getEmployeeNumber(), node);
+                String name = EmployeeSearchIndex.normalize(infos[node].getLastName() + infos[node].getFirstName());
+                byName.merge(name, node, (first, second) -> -2);
+            }
+
+            parent = new int[n];
+            int unresolvedCount = 0;
+            for (int node = 0; node < n; node++) {
+                String supervisor = infos[node].getImmediateSupervisor();
+                Integer resolved = isTop(supervisor) ? null
+                        : byName.get(EmployeeSearchIndex.normalize(supervisor));
+                if (resolved == null || resolved < 0 || resolved == node) {
+                    parent[node] = -1;
+                    if (!isTop(supervisor)) {
+                        unresolvedCount++;
+                    }
+                } else {
+                    parent[node] = resolved;
+                }
+            }
+            unresolved = unresolvedCount;
+
+            int[] childCounts = new int[n];
+            for (int node = 0; node < n; node++) {
+                if (parent[node] >= 0) {
+                    childCounts[parent[node]]++;
+                }
+            }
+            children = new int[n][];
+            for (int node = 0; node < n; node++) {
+                children[node] = childCounts[node] == 0 ? NONE : new int[childCounts[node]];
+                childCounts[node] = 0;
+            }
+            // Nodes are visited in employee number order, so each child list is sorted
+            for (int node = 0; node < n; node++) {
+                if (parent[node] >= 0) {
+                    children[parent[node]][childCounts[parent[node]]++] = node;
+                }
+            }
+
+            level = new int[n];
+            order = new int[n];
+            position = new int[n];
+            end = new int[n];
+            Arrays.fill(position, -1);
+            int next = 0;
+            int rootCount = 0;
+            for (int node = 0; node < n; node++) {
+                if (parent[node] < 0) {
+                    next = number(node, next);
+                    rootCount++;
+                }
+            }
+            // Whatever is left hangs off a cycle of supervisors; cut each cycle at
+            // one of its members and number it from there
+            for (int node = 0; node < n; node++) {
+                if (position[node] < 0) {
+                    int member = node;
+                    for (int step = 0; step < n; step++) {
+                        member = parent[member];
+                    }
+                    logger.warn("Supervisor cycle through employee {}; treating them as the top",
+                            infos[member].getEmployeeNumber());
+                    int[] siblings = children[parent[member]];
+                    int[] kept = new int[siblings.length - 1];
+                    for (int i = 0, k = 0; i < siblings.length; i++) {
+                        if (siblings[i] != member) {
+                            kept[k++] = siblings[i];
+                        }
+                    }
+                    children[parent[member]] = kept;
+                    parent[member] = -1;
+                    next = number(member, next);
+                    rootCount++;
+                }
+            }
+            roots = rootCount;
+        }
+
+        // Numbers a subtree in pre-order, iteratively; returns the next free position
+        private int number(int root, int next) {
+            int[] stack = new int[16];
+            int[] childIndex = new int[16];
+            int top = 0;
+            stack[0] = root;
+            childIndex[0] = 0;
+            level[root] = 0;
+            position[root] = next;
+            order[next++] = root;
+            while (top >= 0) {
+                int node = stack[top];
+                if (childIndex[top] < children[node].length) {
+                    int child = children[node][childIndex[top]++];
+                    level[child] = level[node] + 1;
+                    position[child] = next;
+                    order[next++] = child;
+                    if (++top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                        childIndex = Arrays.copyOf(childIndex, top * 2);
+                    }
+                    stack[top] = child;
+                    childIndex[top] = 0;
+                } else {
+                    end[node] = next;
+                    top--;
+                }
+            }
+            return next;
+        }
+
+        int[] subtree(int node) {
+            return Arrays.copyOfRange(order, position[node] + 1, end[node]);
+        }
+
+        int[] chain(int node) {
+            int[] chain = new int[level[node]];
+            for (int i = 0, current = parent[node]; current >= 0; i++, current = parent[current]) {
+                chain[i] = current;
+            }
+            return chain;
+        }
+
+        ReportingNodeDTO toDTO(int node) {
+            EmployeeOrgInfoDTO info = infos[node];
+            return new ReportingNodeDTO(info.getEmployeeNumber(), info.getLastName(), info.getFirstName(),
+                    info.getPosition(), parent[node] < 0 ? null : infos[parent[node]].getEmployeeNumber(),
+                    level[node], children[node].length, end[node] - position[node] - 1);
+        }
+
+        List<ReportingNodeDTO> toDTOs(int[] nodeIds) {
+            List<ReportingNodeDTO> result = new ArrayList<>(nodeIds.length);
+            for (int node : nodeIds) {
+                result.add(toDTO(node));
+            }
+            return result;
+        }
+    }
+}
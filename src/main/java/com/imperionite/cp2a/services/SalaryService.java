@@ -1,11 +1,10 @@
 // SalaryService.java
 package com.imperionite.cp2a.services;
 
+import com.imperionite.cp2a.dtos.PayrollEntryDTO;
 import com.imperionite.cp2a.entities.Employee;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth; // Import YearMonth
 
@@ -21,6 +20,9 @@ public class SalaryService {
     @Autowired
     private AttendanceService attendanceService;
 
+    @Autowired
+    private DeductionsService deductionsService;
+
     /**
      * Calculates the gross weekly salary for a specific employee.
      * Considers basic salary, hourly rate, and worked hours.
@@ -33,24 +35,7 @@ public class SalaryService {
      * not found.
      */
     public BigDecimal calculateGrossWeeklySalary(String employeeNumber, LocalDate startDate, LocalDate endDate) {
-
-        if (!startDate.getDayOfWeek().equals(DayOfWeek.MONDAY) || !endDate.getDayOfWeek().equals(DayOfWeek.SUNDAY)) {
-            throw new IllegalArgumentException("Start date must be a Monday and end date must be a Sunday.");
-        }
-
-        Employee employee = employeeService.getEmployeeByEmployeeNumber(employeeNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found."));
-
-        BigDecimal totalHours = attendanceService.calculateWeeklyHours(employeeNumber, startDate, endDate);
-
-        BigDecimal hourlyRate = employee.getHourlyRate();
-        if (hourlyRate == null) {
-            throw new IllegalArgumentException("Hourly rate not found for employee " + employeeNumber);
-        }
-
-        BigDecimal grossWeeklySalary = hourlyRate.multiply(totalHours).setScale(2, RoundingMode.HALF_UP);
-
-        return grossWeeklySalary;
+        return calculateGrossSalary(openWeeklyContext(employeeNumber, startDate, endDate));
     }
 
     /**
@@ -71,9 +56,6 @@ public BigDecimal calculateGrossWeeklySalary(String employeeNumber, LocalDate st
      */
     public BigDecimal calculateGrossMonthlySalary(String employeeNumber, YearMonth yearMonth) {
 
-        Employee employee = employeeService.getEmployeeByEmployeeNumber(employeeNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found."));
-
         // If the employee is salaried with a fixed monthly basic salary, you might simply return that:
         // BigDecimal basicSalary = employee.getBasicSalary();
         // if (basicSalary == null) {
@@ -83,18 +65,141 @@ public BigDecimal calculateGrossMonthlySalary(String employeeNumber, YearMonth y
 
         // However, to align with the existing weekly calculation (hourlyRate * hours),
         // we'll calculate monthly gross based on monthly hours.
-        BigDecimal totalMonthlyHours = attendanceService.calculateMonthlyHours(employeeNumber, yearMonth);
+        return calculateGrossSalary(openMonthlyContext(employeeNumber, yearMonth));
+    }
 
+    /**
+     * Opens a payroll context for one employee and one Monday-Sunday week.
+     * Reads the employee from the employee cache and the week's worked hours
+     * from the employee's daily work series; every calculation made with the returned
+     * context reuses them.
+     *
+     * @param employeeNumber The employee number of the employee.
+     * @param startDate      The start date (Monday) of the week.
+     * @param endDate        The end date (Sunday) of the week; a clipped week
+     *                       may end earlier.
+     * @return The payroll context.
+     * @throws IllegalArgumentException If the date range is invalid or employee is
+     * not found.
+     */
+    public PayrollContext openWeeklyContext(String employeeNumber, LocalDate startDate, LocalDate endDate) {
+        return openContext(employeeNumber, PayPeriod.weekly(startDate, endDate));
+    }
+
+    /**
+     * Opens a payroll context for one employee and one calendar month.
+     *
+     * @param employeeNumber The employee number of the employee.
+     * @param yearMonth      The month and year for the calculation.
+     * @return The payroll context.
+     * @throws IllegalArgumentException If employee not found.
+     */
+    public PayrollContext openMonthlyContext(String employeeNumber, YearMonth yearMonth) {
+        return openContext(employeeNumber, PayPeriod.monthly(yearMonth));
+    }
+
+    /**
+     * Opens a payroll context for one employee and any pay period (weekly,
+     * semi-monthly, monthly or custom). The employee comes from the
+     * {@link EmployeeCache} and the worked hours from the employee's
+     * {@link DailyWorkSeries}, so a cached employee needs no query.
+     *
+     * @param employeeNumber The employee number of the employee.
+     * @param period         The pay period.
+     * @return The payroll context.
+     * @throws IllegalArgumentException If employee not found.
+     */
+    public PayrollContext openContext(String employeeNumber, PayPeriod period) {
+        Employee employee = employeeService.getPayrollEmployee(employeeNumber)
+                .orElseThrow(() -> new IllegalArgumentException("Employee not found."));
+
+        long workedCentiHours = attendanceService.getDailySeries(employeeNumber).getCreditedCentiHours(period);
+
+        return new PayrollContext(employee, period, workedCentiHours);
+    }
+
+    /**
+     * Calculates the gross salary for the period of a payroll context and
+     * memoizes it in the context.
+     *
+     * @param context The payroll context of one employee and period.
+     * @return The gross salary as a BigDecimal.
+     * @throws IllegalArgumentException If the hourly rate is not found.
+     */
+    public BigDecimal calculateGrossSalary(PayrollContext context) {
+        return Centavos.toBigDecimal(calculateGrossCentavos(context));
+    }
+
+    /**
+     * Same as {@link #calculateGrossSalary(PayrollContext)} in centavos.
+     *
+     * @param context The payroll context of one employee and period.
+     * @return The gross salary in centavos.
+     * @throws IllegalArgumentException If the hourly rate is not found.
+     */
+    public long calculateGrossCentavos(PayrollContext context) {
+        if (context.getGrossCentavos() == PayrollContext.NOT_COMPUTED) {
+            context.setGrossCentavos(calculateGrossCentavos(context.getEmployee(), context.getWorkedCentiHours()));
+        }
+        return context.getGrossCentavos();
+    }
+
+    /**
+     * Calculates the complete payslip (hours, gross, SSS, PhilHealth, Pag-IBIG,
+     * withholding tax and net) for the period of a payroll context without any
+     * further database access. Every amount is computed in centavos and only
+     * converted to BigDecimal for the returned entry, so the net salary is always
+     * the gross salary less the listed deductions.
+     *
+     * @param context The payroll context of one employee and period.
+     * @return The payroll entry of the context's employee.
+     * @throws IllegalArgumentException If salary data is missing.
+     */
+    public PayrollEntryDTO calculateNetSalary(PayrollContext context) {
+        long grossSalary = calculateGrossCentavos(context);
+        long sssDeduction = deductionsService.calculateSssCentavos(context);
+        long philhealthDeduction = deductionsService.calculatePhilHealthCentavos(context);
+        long pagibigDeduction = deductionsService.calculatePagIbigCentavos(context);
+        long withholdingTax = deductionsService.calculateWithholdingTaxCentavos(context);
+
+        long totalDeductions = sssDeduction + philhealthDeduction + pagibigDeduction + withholdingTax;
+
+        Employee employee = context.getEmployee();
+        return new PayrollEntryDTO(
+                employee.getEmployeeNumber(),
+                employee.getLastName(),
+                employee.getFirstName(),
+                context.getStartDate(),
+                context.getEndDate(),
+                WorkMinutes.toHours(context.getWorkedCentiHours()),
+                Centavos.toBigDecimal(grossSalary),
+                Centavos.toBigDecimal(sssDeduction),
+                Centavos.toBigDecimal(philhealthDeduction),
+                Centavos.toBigDecimal(pagibigDeduction),
+                Centavos.toBigDecimal(withholdingTax),
+                Centavos.toBigDecimal(totalDeductions),
+                Centavos.toBigDecimal(grossSalary - totalDeductions));
+    }
+
+    /**
+     * Calculates the gross salary of an already loaded employee for the given
+     * worked hours (hourly rate * hours, rounded half-up to the centavo). Shared
+     * by every period type and the payroll run calculations.
+     *
+     * @param employee         The employee.
+     * @param workedCentiHours The worked hours for the period, in hundredths of an
+     *                         hour.
+     * @return The gross salary in centavos.
+     * @throws IllegalArgumentException If the hourly rate is not found.
+     */
+    public long calculateGrossCentavos(Employee employee, long workedCentiHours) {
         BigDecimal hourlyRate = employee.getHourlyRate();
         if (hourlyRate == null) {
-            throw new IllegalArgumentException("Hourly rate not found for employee " + employeeNumber);
+            throw new IllegalArgumentException("Hourly rate not found for employee " + employee.getEmployeeNumber());
         }
 
-        // For monthly calculations, totalMonthlyHours will represent accumulated daily hours,
-        // so multiplying by hourlyRate is appropriate if gross pay is truly hours-driven.
-        BigDecimal grossMonthlySalary = hourlyRate.multiply(totalMonthlyHours).setScale(2, RoundingMode.HALF_UP);
-
-        return grossMonthlySalary;
+        // centavos * centi-hours is in ten-thousandths of a peso
+        return Centavos.divideHalfUp(Math.multiplyExact(Centavos.of(hourlyRate), workedCentiHours), 100);
     }
 
-}
\ No newline at end of file
+}
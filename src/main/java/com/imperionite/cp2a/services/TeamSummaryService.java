@@ -0,0 +1,111 @@
+// TeamSummaryService.java
+package com.imperionite.cp2a.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.imperionite.cp2a.dtos.PayrollEntryDTO;
+import com.imperionite.cp2a.dtos.ReportingNodeDTO;
+import com.imperionite.cp2a.dtos.TeamMemberSummaryDTO;
+import com.imperionite.cp2a.dtos.TeamSummaryDTO;
+import com.imperionite.cp2a.entities.Employee;
+
+/**
+ * A supervisor's team dashboard: hours, lateness and estimated pay of every
+ * report for one cut-off.
+ *
+ * The team comes from the {@link ReportingHierarchy} in memory. The members'
+ * days present, credited hours and late minutes are read from their
+ * {@link DailyWorkSeries}, as the payroll run reads them, and their payroll
+ * attributes from the {@link EmployeeCache} (one query for any misses). Pay is
+ * then computed in memory with the payslip rules of {@link SalaryService} and
+ * {@link DeductionsService}, so the query count does not grow with the team.
+ */
+@Service
+public class TeamSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamSummaryService.class);
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private SalaryService salaryService;
+
+    /**
+     * Summarizes a supervisor's team for a pay period.
+     *
+     * @param supervisorEmployeeNumber The supervisor's employee number.
+     * @param period                   The pay period.
+     * @param includeIndirect          Whether to include indirect reports as well
+     *                                 as direct ones.
+     * @return The summary, or empty when there is no such employee.
+     * @throws IllegalArgumentException If a member's salary data is missing.
+     */
+    public Optional<TeamSummaryDTO> getTeamSummary(String supervisorEmployeeNumber, PayPeriod period,
+            boolean includeIndirect) {
+        Optional<List<ReportingNodeDTO>> team = includeIndirect
+                ? employeeService.getAllReports(supervisorEmployeeNumber)
+                : employeeService.getDirectReports(supervisorEmployeeNumber);
+        if (team.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<String> employeeNumbers = new ArrayList<>(team.get().size());
+        for (ReportingNodeDTO member : team.get()) {
+            employeeNumbers.add(member.getEmployeeNumber());
+        }
+        Map<String, Employee> employees = employeeService.getPayrollEmployees(employeeNumbers);
+
+        List<TeamMemberSummaryDTO> members = new ArrayList<>(employeeNumbers.size());
+        int membersLate = 0;
+        long daysPresent = 0;
+        long creditedCentiHours = 0;
+        long lateMinutes = 0;
+        BigDecimal grossSalary = BigDecimal.ZERO;
+        BigDecimal totalDeductions = BigDecimal.ZERO;
+        BigDecimal netSalary = BigDecimal.ZERO;
+        for (ReportingNodeDTO member : team.get()) {
+            DailyWorkSeries series = attendanceService.getDailySeries(member.getEmployeeNumber());
+            long memberDays = series.getDaysPresent(period.getStartDate(), period.getEndDate());
+            long memberCentiHours = series.getCreditedCentiHours(period);
+            long memberLateMinutes = series.getLateMinutes(period.getStartDate(), period.getEndDate());
+
+            Employee employee = employees.get(member.getEmployeeNumber());
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee not found: " + member.getEmployeeNumber());
+            }
+            PayrollEntryDTO entry = salaryService
+                    .calculateNetSalary(new PayrollContext(employee, period, memberCentiHours));
+
+            members.add(new TeamMemberSummaryDTO(member.getEmployeeNumber(), member.getLastName(),
+                    member.getFirstName(), member.getPosition(), memberDays, entry.getWorkedHours(),
+                    memberLateMinutes, entry.getGrossSalary(), entry.getTotalDeductions(), entry.getNetSalary()));
+
+            membersLate += memberLateMinutes > 0 ? 1 : 0;
+            daysPresent += memberDays;
+            creditedCentiHours += memberCentiHours;
+            lateMinutes += memberLateMinutes;
+            grossSalary = grossSalary.add(entry.getGrossSalary());
+            totalDeductions = totalDeductions.add(entry.getTotalDeductions());
+            netSalary = netSalary.add(entry.getNetSalary());
+        }
+
+        logger.debug("Team summary of {} for {}: {} members", supervisorEmployeeNumber, period, members.size());
+        return Optional.of(new TeamSummaryDTO(supervisorEmployeeNumber, period.getType().name(),
+                period.getStartDate(), period.getEndDate(), members.size(), membersLate, daysPresent,
+                WorkMinutes.toHours(creditedCentiHours), lateMinutes, grossSalary, totalDeductions, netSalary,
+                members));
+    }
+}
@@ -0,0 +1,105 @@
+// WithholdingTaxService.java
+package com.imperionite.cp2a.services;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imperionite.cp2a.dtos.TaxTableDefinition;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Loads the BIR withholding tax tables from {@code withholding_tax.json} and
+ * evaluates them. Every table in the file is compiled at startup, so a new
+ * table (e.g. daily) only needs a new entry in the JSON.
+ */
+@Service
+public class WithholdingTaxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WithholdingTaxService.class);
+
+    public static final String WEEKLY = "weekly";
+    public static final String SEMI_MONTHLY = "semiMonthly";
+    public static final String MONTHLY = "monthly";
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private Map<String, WithholdingTaxTable> tables = Collections.emptyMap();
+
+    /**
+     * Loads and compiles the withholding tax tables during application startup.
+     *
+     * @throws IOException If an error occurs while reading or parsing the JSON
+     * file.
+     * @throws IllegalStateException If a table is invalid.
+     */
+    @PostConstruct
+    public void loadTaxTables() throws IOException {
+        Map<String, TaxTableDefinition> definitions;
+        try {
+            definitions = new ObjectMapper().readValue(
+                    resourceLoader.getResource("classpath:withholding_tax.json").getInputStream(),
+                    new TypeReference<LinkedHashMap<String, TaxTableDefinition>>() {
+                    });
+        } catch (IOException e) {
+            logger.error("Error loading withholding tax tables from JSON: {}", e.getMessage(), e);
+            throw new IOException("Failed to load withholding tax tables from JSON.", e);
+        }
+
+        Map<String, WithholdingTaxTable> compiled = new LinkedHashMap<>();
+        definitions.forEach((name, definition) -> compiled.put(name, WithholdingTaxTable.compile(name, definition)));
+        tables = Collections.unmodifiableMap(compiled);
+        logger.info("Loaded withholding tax tables: {}", tables.keySet());
+    }
+
+    /**
+     * Calculates the withholding tax of a taxable income with the named table.
+     *
+     * @param tableName     The table name (e.g. {@link #WEEKLY}).
+     * @param taxableIncome The taxable income for the table's period.
+     * @return The withholding tax.
+     * @throws IllegalArgumentException If no table with that name is loaded.
+     */
+    public BigDecimal calculateTax(String tableName, BigDecimal taxableIncome) {
+        return getTable(tableName).calculateTax(taxableIncome);
+    }
+
+    /**
+     * Calculates the withholding tax of a taxable income in centavos with the
+     * named table.
+     *
+     * @param tableName     The table name (e.g. {@link #WEEKLY}).
+     * @param taxableIncome The taxable income for the table's period, in
+     *                      centavos.
+     * @return The withholding tax in centavos.
+     * @throws IllegalArgumentException If no table with that name is loaded.
+     */
+    public long calculateTax(String tableName, long taxableIncome) {
+        return getTable(tableName).calculateTax(taxableIncome);
+    }
+
+    public WithholdingTaxTable getTable(String tableName) {
+        WithholdingTaxTable table = tables.get(tableName);
+        if (table == null) {
+            throw new IllegalArgumentException("Withholding tax table not found: " + tableName);
+        }
+        return table;
+    }
+
+    public Set<String> getTableNames() {
+        return tables.keySet();
+    }
+}
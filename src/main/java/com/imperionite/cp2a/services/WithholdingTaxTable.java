@@ -0,0 +1,147 @@
+// WithholdingTaxTable.java
+package com.imperionite.cp2a.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.imperionite.cp2a.dtos.TaxBracket;
+import com.imperionite.cp2a.dtos.TaxTableDefinition;
+
+/**
+ * Immutable, compiled form of one progressive withholding tax table.
+ *
+ * Each bracket is reduced at load time to a threshold, a rate and an intercept
+ * ({@code baseTax - threshold * rate}), so evaluating the tax is one binary
+ * search over the thresholds followed by {@code income * rate + intercept}.
+ * Thresholds are kept in centavos, rates in millionths and intercepts in
+ * centavo-millionths, so the evaluation is exact in {@code long} arithmetic and
+ * only the final amount is rounded (half-up) to the centavo.
+ */
+public final class WithholdingTaxTable {
+
+    private final String name;
+    private final long[] thresholds;
+    private final long[] rates;
+    private final long[] intercepts;
+
+    private WithholdingTaxTable(String name, long[] thresholds, long[] rates, long[] intercepts) {
+        this.name = name;
+        this.thresholds = thresholds;
+        this.rates = rates;
+        this.intercepts = intercepts;
+    }
+
+    /**
+     * Compiles and validates a table definition. Thresholds must be strictly
+     * ascending with at most two decimal places, base taxes must have at most two
+     * decimal places and rates must be non-negative with at most six. A bracket
+     * without a base tax gets the tax due at its threshold under the previous
+     * bracket.
+     *
+     * @param name       The table name, used in error messages (e.g. "weekly").
+     * @param definition The table definition loaded from JSON.
+     * @return The compiled table.
+     * @throws IllegalStateException If the definition is empty or invalid.
+     */
+    public static WithholdingTaxTable compile(String name, TaxTableDefinition definition) {
+        List<TaxBracket> brackets = definition == null ? null : definition.getBrackets();
+        if (brackets == null || brackets.isEmpty()) {
+            throw new IllegalStateException("Withholding tax table '" + name + "' has no brackets.");
+        }
+
+        int size = brackets.size();
+        long[] thresholds = new long[size];
+        long[] rates = new long[size];
+        long[] intercepts = new long[size];
+        long previousBaseTax = 0; // in centavo-millionths
+
+        for (int i = 0; i < size; i++) {
+            TaxBracket bracket = brackets.get(i);
+            if (bracket.getOver() == null || bracket.getRate() == null) {
+                throw new IllegalStateException("Withholding tax table '" + name + "' bracket " + i
+                        + " is missing its threshold or rate.");
+            }
+            if (bracket.getRate().signum() < 0) {
+                throw new IllegalStateException("Withholding tax table '" + name + "' bracket " + i
+                        + " has a negative rate.");
+            }
+
+            long threshold;
+            long rate;
+            Long baseTax;
+            try {
+                threshold = exactCentavos(bracket.getOver());
+                rate = Centavos.rateOf(bracket.getRate());
+                baseTax = bracket.getBaseTax() == null ? null
+                        : Math.multiplyExact(exactCentavos(bracket.getBaseTax()), Centavos.RATE_ONE);
+            } catch (ArithmeticException e) {
+                throw new IllegalStateException("Withholding tax table '" + name + "' bracket " + i
+                        + " has too many decimal places.", e);
+            }
+            if (i > 0 && threshold <= thresholds[i - 1]) {
+                throw new IllegalStateException("Withholding tax table '" + name
+                        + "' thresholds are not in ascending order at bracket " + i + ".");
+            }
+            if (baseTax == null) {
+                baseTax = i == 0 ? 0L : previousBaseTax + (threshold - thresholds[i - 1]) * rates[i - 1];
+            }
+
+            thresholds[i] = threshold;
+            rates[i] = rate;
+            intercepts[i] = baseTax - threshold * rate;
+            previousBaseTax = baseTax;
+        }
+
+        return new WithholdingTaxTable(name, thresholds, rates, intercepts);
+    }
+
+    private static long exactCentavos(BigDecimal amount) {
+        return amount.setScale(Centavos.SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Calculates the withholding tax for a taxable income. Income at or below the
+     * first threshold, or falling in a bracket without tax, is not taxed.
+     *
+     * @param taxableIncome The taxable income for the table's period, in
+     *                      centavos.
+     * @return The withholding tax in centavos, rounded half-up.
+     */
+    public long calculateTax(long taxableIncome) {
+        // Find the last bracket whose threshold is strictly below the income
+        int low = 0;
+        int high = thresholds.length - 1;
+        int bracket = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] < taxableIncome) {
+                bracket = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (bracket < 0 || (rates[bracket] == 0 && intercepts[bracket] == 0)) {
+            return 0; // No withholding tax
+        }
+
+        long tax = Math.addExact(Math.multiplyExact(taxableIncome, rates[bracket]), intercepts[bracket]);
+        return Centavos.divideHalfUp(tax, Centavos.RATE_ONE);
+    }
+
+    /**
+     * Calculates the withholding tax for a taxable income.
+     *
+     * @param taxableIncome The taxable income for the table's period.
+     * @return The withholding tax, rounded half-up to the centavo.
+     */
+    public BigDecimal calculateTax(BigDecimal taxableIncome) {
+        return Centavos.toBigDecimal(calculateTax(Centavos.of(taxableIncome)));
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,131 @@
+// WorkMinutes.java
+package com.imperionite.cp2a.services;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+
+/**
+ * Integer-minute arithmetic for worked time.
+ *
+ * Worked time is carried as {@code long} centi-hours (hundredths of an hour),
+ * which is exactly the two-decimal hour figure the payroll has always used, so
+ * a day's credited hours and a period's total can be summed without creating
+ * any {@link BigDecimal}.
+ *
+ * The attendance column store and the daily series work on seconds of the
+ * day, so each rule also has a second-of-day form; this class is the only
+ * place the grace period and the credited-hours formula are written down.
+ */
+public final class WorkMinutes {
+
+    /** Employees logging in after this time have the late minutes deducted. */
+    public static final LocalTime GRACE_PERIOD_END = LocalTime.of(8, 10);
+
+    private static final int GRACE_PERIOD_END_SECOND = GRACE_PERIOD_END.toSecondOfDay();
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private WorkMinutes() {
+    }
+
+    /**
+     * Returns the whole minutes between two times of the same day, truncating
+     * any seconds like {@code ChronoUnit.MINUTES.between}.
+     *
+     * @param from The start time.
+     * @param to   The end time.
+     * @return The minutes from {@code from} to {@code to}; negative if
+     *         {@code to} is earlier.
+     */
+    public static long minutesBetween(LocalTime from, LocalTime to) {
+        return (to.toNanoOfDay() - from.toNanoOfDay()) / NANOS_PER_MINUTE;
+    }
+
+    /**
+     * Returns the minutes an employee logged in after the grace period.
+     *
+     * @param logIn The log-in time.
+     * @return The late minutes, or 0 when logging in within the grace period.
+     */
+    public static long lateMinutes(LocalTime logIn) {
+        return lateMinutes(logIn.toSecondOfDay());
+    }
+
+    /**
+     * Returns the whole minutes between two seconds of the same day.
+     *
+     * @param fromSecond The start second of day.
+     * @param toSecond   The end second of day.
+     * @return The minutes from {@code fromSecond} to {@code toSecond}.
+     */
+    public static long minutesBetween(int fromSecond, int toSecond) {
+        return (toSecond - fromSecond) / 60;
+    }
+
+    /**
+     * Tells whether a log-in is past the grace period, even by less than a
+     * minute.
+     *
+     * @param logInSecond The log-in second of day.
+     * @return True if the employee logged in late.
+     */
+    public static boolean isLate(int logInSecond) {
+        return logInSecond > GRACE_PERIOD_END_SECOND;
+    }
+
+    /**
+     * Returns the minutes an employee logged in after the grace period.
+     *
+     * @param logInSecond The log-in second of day.
+     * @return The late minutes, or 0 when logging in within the grace period.
+     */
+    public static long lateMinutes(int logInSecond) {
+        return isLate(logInSecond) ? minutesBetween(GRACE_PERIOD_END_SECOND, logInSecond) : 0;
+    }
+
+    /**
+     * Converts minutes to centi-hours, rounding half-up to the hundredth of an
+     * hour.
+     *
+     * @param minutes The minutes.
+     * @return The centi-hours.
+     */
+    public static long toCentiHours(long minutes) {
+        return Centavos.divideHalfUp(minutes * 100, 60);
+    }
+
+    /**
+     * Calculates the credited hours of one attendance record: the time between
+     * log-in and log-out less the minutes late past the grace period, each
+     * rounded to the hundredth of an hour.
+     *
+     * @param logIn  The log-in time.
+     * @param logOut The log-out time.
+     * @return The credited centi-hours.
+     */
+    public static long creditedCentiHours(LocalTime logIn, LocalTime logOut) {
+        return creditedCentiHours(minutesBetween(logIn, logOut), lateMinutes(logIn));
+    }
+
+    /**
+     * Calculates the credited hours of one day from its worked and late
+     * minutes, each rounded to the hundredth of an hour.
+     *
+     * @param workedMinutes The minutes between log-in and log-out.
+     * @param lateMinutes   The minutes late past the grace period.
+     * @return The credited centi-hours.
+     */
+    public static long creditedCentiHours(long workedMinutes, long lateMinutes) {
+        return toCentiHours(workedMinutes) - toCentiHours(lateMinutes);
+    }
+
+    /**
+     * Converts centi-hours back to hours with two decimal places.
+     *
+     * @param centiHours The centi-hours.
+     * @return The hours.
+     */
+    public static BigDecimal toHours(long centiHours) {
+        return BigDecimal.valueOf(centiHours, 2);
+    }
+}
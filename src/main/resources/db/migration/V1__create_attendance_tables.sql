@@ -0,0 +1,28 @@
+-- Attendance tables as previously created by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS lets existing databases, baselined at version 0, pass through unchanged.
+
+CREATE TABLE IF NOT EXISTS attendance (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    employee_number VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+    log_in TIME NOT NULL,
+    log_out TIME NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS attendance_rollup (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    employee_number VARCHAR(255) NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    period_start DATE NOT NULL,
+    period_end DATE NOT NULL,
+    worked_minutes BIGINT NOT NULL,
+    late_minutes BIGINT NOT NULL,
+    credited_centi_hours BIGINT NOT NULL,
+    days_present BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_attendance_rollup_period UNIQUE (employee_number, granularity, period_start)
+) ENGINE = InnoDB;
@@ -0,0 +1,19 @@
+-- One attendance row per employee and day, matching Attendance.equals/hashCode.
+-- Duplicates from before the constraint are collapsed to the most recently inserted row.
+
+DELETE older FROM attendance older
+    JOIN attendance newer
+      ON newer.employee_number = older.employee_number
+     AND newer.date = older.date
+     AND newer.id > older.id;
+
+-- Serves the per-employee range scans (employee_number = ? AND date BETWEEN ? AND ?)
+-- and makes INSERT ... ON DUPLICATE KEY UPDATE an upsert on the day.
+CREATE UNIQUE INDEX uk_attendance_employee_date ON attendance (employee_number, date);
+
+-- Serves the all-employee period scans (date BETWEEN ? AND ?).
+CREATE INDEX idx_attendance_date ON attendance (date);
+
+-- Rollups may still count removed duplicates; AttendanceRollupService.rebuildIfEmpty
+-- rebuilds them from the deduplicated rows on startup.
+DELETE FROM attendance_rollup;
@@ -0,0 +1,4 @@
+-- Worked-hours totals are answered from the in-memory attendance column store,
+-- so the rollup table is no longer written or read.
+
+DROP TABLE IF EXISTS attendance_rollup;
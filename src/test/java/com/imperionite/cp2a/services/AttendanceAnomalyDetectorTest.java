@@ -0,0 +1,87 @@
+package com.imperionite.cp2a.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imperionite.cp2a.dtos.AttendanceAnomalyDTO;
+import com.imperionite.cp2a.dtos.AttendanceAnomalyDTO.Type;
+import com.imperionite.cp2a.entities.Attendance;
+
+/**
+ * Row-level attendance anomaly checks, with the default 16-hour maximum shift.
+ */
+class AttendanceAnomalyDetectorTest {
+
+    private AttendanceAnomalyDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new AttendanceAnomalyDetector();
+        ReflectionTestUtils.setField(detector, "maxShiftHours", 16L);
+    }
+
+    @Test
+    void flagsLogOutBeforeLogInWithTheNegativeMinutes() {
+        List<AttendanceAnomalyDTO> anomalies = check(LocalTime.of(17, 0), LocalTime.of(8, 30));
+
+        assertEquals(1, anomalies.size());
+        assertEquals(Type.LOGOUT_BEFORE_LOGIN, anomalies.get(0).getType());
+        assertEquals("Log-out is before log-in (-510 minutes).", anomalies.get(0).getDetail());
+    }
+
+    @Test
+    void flagsAZeroLengthShift() {
+        List<AttendanceAnomalyDTO> anomalies = check(LocalTime.of(8, 0), LocalTime.of(8, 0));
+
+        assertEquals(1, anomalies.size());
+        assertEquals(Type.ZERO_LENGTH_SHIFT, anomalies.get(0).getType());
+    }
+
+    @Test
+    void flagsAShiftLongerThanTheMaximum() {
+        List<AttendanceAnomalyDTO> anomalies = check(LocalTime.of(6, 0), LocalTime.of(22, 1));
+
+        assertEquals(1, anomalies.size());
+        assertEquals(Type.IMPOSSIBLE_SHIFT, anomalies.get(0).getType());
+        assertEquals("Shift of 961 minutes exceeds 16 hours.", anomalies.get(0).getDetail());
+    }
+
+    @Test
+    void acceptsAnOrdinaryShiftAndOneOfExactlyTheMaximum() {
+        assertTrue(check(LocalTime.of(8, 5), LocalTime.of(17, 2)).isEmpty());
+        assertTrue(check(LocalTime.of(6, 0), LocalTime.of(22, 0)).isEmpty());
+    }
+
+    @Test
+    void keepsTheAnomaliesOfInspectedRecords() {
+        detector.inspect(List.of(attendance("10001", LocalTime.of(8, 0), LocalTime.of(17, 0)),
+                attendance("10002", LocalTime.of(9, 0), LocalTime.of(9, 0))));
+
+        List<AttendanceAnomalyDTO> recent = detector.getRecentAnomalies();
+        assertEquals(1, recent.size());
+        assertEquals("10002", recent.get(0).getEmployeeNumber());
+        assertEquals(Type.ZERO_LENGTH_SHIFT, recent.get(0).getType());
+    }
+
+    private List<AttendanceAnomalyDTO> check(LocalTime logIn, LocalTime logOut) {
+        return detector.checkTimes(new AttendanceAnomalyDTO(null, 1L, "10001", LocalDate.of(2024, 6, 3), logIn,
+                logOut, null));
+    }
+
+    private static Attendance attendance(String employeeNumber, LocalTime logIn, LocalTime logOut) {
+        Attendance attendance = new Attendance();
+        attendance.setEmployeeNumber(employeeNumber);
+        attendance.setDate(LocalDate.of(2024, 6, 3));
+        attendance.setLogIn(logIn);
+        attendance.setLogOut(logOut);
+        return attendance;
+    }
+}
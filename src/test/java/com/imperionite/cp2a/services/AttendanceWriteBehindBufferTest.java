@@ -0,0 +1,224 @@
+package com.imperionite.cp2a.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imperionite.cp2a.entities.Attendance;
+
+/**
+ * Crash recovery of the attendance write-behind buffer: records left in the
+ * journal are written on the next start, the journal is emptied once its
+ * records are written, and a record that cannot be written is dead-lettered
+ * instead of stopping the queue. The database writes are replaced by a
+ * recording {@link AttendanceBatchWriter}.
+ */
+class AttendanceWriteBehindBufferTest {
+
+    private static final String POISON = "99999"; // the writer rejects this employee's records
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // Employee numbers of the records written, in order
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    // Writes wait until this opens; a test closes it to look at the journal before anything is written
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @TempDir
+    Path directory;
+
+    private Path journal;
+    private Path deadLetter;
+    private AttendanceWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        journal = directory.resolve("attendance.journal");
+        deadLetter = directory.resolve("attendance.dead-letter");
+
+        AttendanceBatchWriter writer = new AttendanceBatchWriter() {
+            @Override
+            public int upsert(List<Attendance> attendances) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (Attendance attendance : attendances) {
+                    if (POISON.equals(attendance.getEmployeeNumber())) {
+                        throw new DataIntegrityViolationException("Cannot add or update a child row");
+                    }
+                }
+                attendances.forEach(attendance -> written.add(attendance.getEmployeeNumber()));
+                return attendances.size();
+            }
+        };
+
+        buffer = new AttendanceWriteBehindBuffer();
+        ReflectionTestUtils.setField(buffer, "attendanceBatchWriter", writer);
+        ReflectionTestUtils.setField(buffer, "cutoffCalendar", mock(CutoffCalendar.class));
+        ReflectionTestUtils.setField(buffer, "attendanceColumnStore", mock(AttendanceColumnStore.class));
+        ReflectionTestUtils.setField(buffer, "attendanceAnomalyDetector", mock(AttendanceAnomalyDetector.class));
+        ReflectionTestUtils.setField(buffer, "dataVersionTracker", mock(DataVersionTracker.class));
+        ReflectionTestUtils.setField(buffer, "transactionManager", new NoOpTransactionManager());
+        ReflectionTestUtils.setField(buffer, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "capacity", 100);
+        ReflectionTestUtils.setField(buffer, "batchSize", 10);
+        ReflectionTestUtils.setField(buffer, "maxDelayMillis", 20L);
+        ReflectionTestUtils.setField(buffer, "journalPath", journal.toString());
+        ReflectionTestUtils.setField(buffer, "deadLetterPath", deadLetter.toString());
+        ReflectionTestUtils.setField(buffer, "maxAttempts", 2);
+        ReflectionTestUtils.setField(buffer, "retryDelayMillis", 10L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        buffer.stop();
+    }
+
+    @Test
+    void replaysTheJournalLeftByACrashAndEmptiesIt() throws IOException {
+        // Two acknowledged records, then one cut short by the crash (never acknowledged)
+        String crashed = journalLine(attendance("10001", 3)) + journalLine(attendance("10002", 3))
+                + "{\"employeeNumber\":\"10003\",\"da";
+        Files.writeString(journal, crashed, StandardCharsets.UTF_8);
+
+        buffer.start();
+
+        assertEquals(List.of("10001", "10002"), written);
+        assertEquals(0, Files.size(journal));
+    }
+
+    @Test
+    void emptiesTheJournalOnceQueuedRecordsAreWritten() throws IOException {
+        gate = new CountDownLatch(1);
+        buffer.start();
+
+        assertTrue(buffer.offer(attendance("10001", 3)));
+        assertTrue(buffer.offer(attendance("10002", 3)));
+        assertEquals(2, Files.readAllLines(journal, StandardCharsets.UTF_8).size(),
+                "accepted records are journaled before they are written");
+        assertTrue(written.isEmpty());
+
+        gate.countDown();
+        await(() -> written.size() == 2 && size(journal) == 0);
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    void deadLettersARecordThatKeepsFailingAndKeepsDraining() throws IOException {
+        buffer.start();
+
+        assertTrue(buffer.offer(attendance("10001", 3)));
+        assertTrue(buffer.offer(attendance(POISON, 3)));
+        assertTrue(buffer.offer(attendance("10002", 3)));
+
+        await(() -> written.containsAll(List.of("10001", "10002")) && size(journal) == 0);
+        assertTrue(buffer.offer(attendance("10003", 4)), "the queue still accepts records");
+        await(() -> written.contains("10003"));
+
+        List<String> deadLettered = Files.readAllLines(deadLetter, StandardCharsets.UTF_8);
+        assertEquals(1, deadLettered.size());
+        // In the NDJSON import format, so it can be re-imported once fixed
+        assertTrue(deadLettered.get(0).startsWith("{\"EmployeeNumber\":\"99999\",\"LastName\":\"Doe\","
+                + "\"FirstName\":\"Jane\",\"Date\":\"06/03/2024\",\"LogIn\":\"08:00\",\"LogOut\":\"17:00\","),
+                deadLettered.get(0));
+    }
+
+    @Test
+    void replayDeadLettersARecordThatCannotBeWritten() throws IOException {
+        Files.writeString(journal, journalLine(attendance("10001", 3)) + journalLine(attendance(POISON, 3)),
+                StandardCharsets.UTF_8);
+
+        buffer.start();
+
+        assertEquals(List.of("10001"), written);
+        assertEquals(0, Files.size(journal));
+        assertEquals(1, Files.readAllLines(deadLetter, StandardCharsets.UTF_8).size());
+    }
+
+    private String journalLine(Attendance attendance) throws IOException {
+        return objectMapper.writeValueAsString(attendance) + "\n";
+    }
+
+    private static Attendance attendance(String employeeNumber, int dayOfJune) {
+        Attendance attendance = new Attendance();
+        attendance.setEmployeeNumber(employeeNumber);
+        attendance.setLastName("Doe");
+        attendance.setFirstName("Jane");
+        attendance.setDate(LocalDate.of(2024, 6, dayOfJune));
+        attendance.setLogIn(LocalTime.of(8, 0));
+        attendance.setLogOut(LocalTime.of(17, 0));
+        return attendance;
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for the flusher");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs the callback without a database; commits always succeed.
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
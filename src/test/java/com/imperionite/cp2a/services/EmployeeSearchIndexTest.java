@@ -0,0 +1,109 @@
+package com.imperionite.cp2a.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imperionite.cp2a.dtos.EmployeeSearchInfoDTO;
+import com.imperionite.cp2a.dtos.EmployeeSearchResultDTO;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+/**
+ * Ranking and matching of the employee typeahead index, built from a fixed
+ * list of employees instead of the database.
+ */
+class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        when(employeeRepository.findAllSearchInfo()).thenReturn(List.of(
+                employee("10001", "Cruz", "Manuel", "44-4506057-3", "442-605-657-000"),
+                employee("10002", "Cruzado", "Antonio", "52-2061274-9", "683-102-776-000"),
+                employee("10003", "Dela Cruz", "Andrea", "30-2201641-2", "912-200-446-000"),
+                employee("10004", "Garcia", "Manuel", "49-1632020-8", "442-605-657-111"),
+                employee("10005", "Garcia", "Ana", "36-4013287-0", "103-100-522-000"),
+                employee("10006", "Reyes", "Isabella", "40-2400714-1", "114-343-333-000")));
+
+        index = new EmployeeSearchIndex();
+        ReflectionTestUtils.setField(index, "employeeRepository", employeeRepository);
+    }
+
+    @Test
+    void ranksExactAbovePrefixAboveSubstring() {
+        List<EmployeeSearchResultDTO> results = index.search("cruz", 10);
+
+        assertEquals(List.of("10001", "10003", "10002"), numbers(results),
+                "'Cruz' is exact, 'Dela Cruz' has an exact word, 'Cruzado' is a prefix");
+        assertResult(results.get(0), "LAST_NAME", 60);
+        assertResult(results.get(1), "LAST_NAME", 60);
+        assertResult(results.get(2), "LAST_NAME", 50);
+
+        List<EmployeeSearchResultDTO> substring = index.search("ruz", 10);
+        assertEquals(3, substring.size());
+        substring.forEach(result -> assertResult(result, "LAST_NAME", 15));
+    }
+
+    @Test
+    void matchesEmployeeNumbersAndGovernmentIds() {
+        assertResult(index.search("10004", 10).get(0), "EMPLOYEE_NUMBER", 100);
+
+        // Separators are ignored, so the SSS matches with or without its dashes
+        List<EmployeeSearchResultDTO> results = index.search("44-4506057-3", 10);
+        assertEquals(List.of("10001"), numbers(results));
+        assertResult(results.get(0), "SSS", 90);
+
+        // A TIN prefix shared by two employees
+        assertEquals(List.of("10001", "10004"), numbers(index.search("442605657", 10)));
+    }
+
+    @Test
+    void requiresEveryWordToMatch() {
+        List<EmployeeSearchResultDTO> results = index.search("Garcia Man", 10);
+
+        assertEquals(List.of("10004"), numbers(results));
+        assertResult(results.get(0), "LAST_NAME", 60 + 45);
+
+        assertEquals(List.of("10001", "10004"), numbers(index.search("manuel", 10)),
+                "equal scores follow last name order");
+        assertTrue(index.search("Garcia Isabella", 10).isEmpty());
+        assertTrue(index.search(" , . ", 10).isEmpty());
+    }
+
+    @Test
+    void keepsTheBestResultsUpToTheLimit() {
+        // Every employee number starts with 1000
+        assertEquals(6, index.search("1000", EmployeeSearchIndex.MAX_RESULTS).size());
+
+        List<EmployeeSearchResultDTO> limited = index.search("cruz", 2);
+        assertEquals(List.of("10001", "10003"), numbers(limited));
+
+        assertThrows(IllegalArgumentException.class, () -> index.search("cruz", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search("cruz", EmployeeSearchIndex.MAX_RESULTS + 1));
+    }
+
+    private static void assertResult(EmployeeSearchResultDTO result, String matchedField, int score) {
+        assertEquals(matchedField, result.getMatchedField(), result.getEmployeeNumber());
+        assertEquals(score, result.getScore(), result.getEmployeeNumber());
+    }
+
+    private static List<String> numbers(List<EmployeeSearchResultDTO> results) {
+        return results.stream().map(EmployeeSearchResultDTO::getEmployeeNumber).toList();
+    }
+
+    private static EmployeeSearchInfoDTO employee(String employeeNumber, String lastName, String firstName,
+            String sss, String tin) {
+        return new EmployeeSearchInfoDTO(employeeNumber, lastName, firstName, "Rank and File", sss, tin);
+    }
+}
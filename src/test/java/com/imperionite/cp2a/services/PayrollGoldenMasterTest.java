@@ -0,0 +1,170 @@
+package com.imperionite.cp2a.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imperionite.cp2a.dtos.PayrollEntryDTO;
+import com.imperionite.cp2a.entities.Employee;
+
+/**
+ * Golden-master test of the payroll math. {@code payroll_golden_master.csv}
+ * holds the payslips computed with the original BigDecimal implementation for
+ * every employee and every week and month of the bundled attendance records;
+ * the current implementation must reproduce each amount to within half a
+ * centavo of the unrounded baseline. Worked hours are read from a
+ * {@link DailyWorkSeries} of each employee, as in production.
+ */
+class PayrollGoldenMasterTest {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private static final BigDecimal HALF_CENTAVO = new BigDecimal("0.005");
+
+    private static Map<String, Employee> employees;
+    private static Map<String, DailyWorkSeries> dailySeries;
+    private static SalaryService salaryService;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        employees = loadEmployees();
+        dailySeries = loadDailySeries();
+
+        DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+        WithholdingTaxService withholdingTaxService = new WithholdingTaxService();
+        ReflectionTestUtils.setField(withholdingTaxService, "resourceLoader", resourceLoader);
+        withholdingTaxService.loadTaxTables();
+
+        DeductionsService deductionsService = new DeductionsService();
+        ReflectionTestUtils.setField(deductionsService, "resourceLoader", resourceLoader);
+        ReflectionTestUtils.setField(deductionsService, "withholdingTaxService", withholdingTaxService);
+        deductionsService.loadContributions();
+
+        salaryService = new SalaryService();
+        ReflectionTestUtils.setField(salaryService, "deductionsService", deductionsService);
+    }
+
+    @Test
+    void payslipsMatchGoldenMasterToTheCentavo() throws IOException {
+        List<CSVRecord> expectedPayslips = parse("payroll_golden_master.csv");
+        assertFalse(expectedPayslips.isEmpty());
+
+        for (CSVRecord expected : expectedPayslips) {
+            Employee employee = employees.get(expected.get("employeeNumber"));
+            LocalDate startDate = LocalDate.parse(expected.get("startDate"));
+            LocalDate endDate = LocalDate.parse(expected.get("endDate"));
+            PayPeriod period = PayPeriod.of(PayrollContext.PeriodType.valueOf(expected.get("period")), startDate,
+                    endDate);
+            long workedCentiHours = dailySeries.getOrDefault(employee.getEmployeeNumber(),
+                    DailyWorkSeries.empty(employee.getEmployeeNumber())).getCreditedCentiHours(period);
+
+            PayrollEntryDTO actual = salaryService.calculateNetSalary(new PayrollContext(employee, period,
+                    workedCentiHours));
+
+            String row = expected.get("period") + " " + employee.getEmployeeNumber() + " " + startDate;
+            assertCentavos(expected, "workedHours", actual.getWorkedHours(), row);
+            assertCentavos(expected, "grossSalary", actual.getGrossSalary(), row);
+            assertCentavos(expected, "sssDeduction", actual.getSssDeduction(), row);
+            assertCentavos(expected, "philhealthDeduction", actual.getPhilhealthDeduction(), row);
+            assertCentavos(expected, "pagibigDeduction", actual.getPagibigDeduction(), row);
+            assertCentavos(expected, "withholdingTax", actual.getWithholdingTax(), row);
+            assertCentavos(expected, "totalDeductions", actual.getTotalDeductions(), row);
+            assertCentavos(expected, "netSalary", actual.getNetSalary(), row);
+        }
+    }
+
+    @Test
+    void creditedHoursRoundEachLegHalfUp() {
+        // 08:11 to 17:00 is 529 minutes (8.82h) less 1 late minute (0.02h)
+        assertEquals(880, WorkMinutes.creditedCentiHours(LocalTime.of(8, 11), LocalTime.of(17, 0)));
+        // Within the grace period nothing is deducted
+        assertEquals(900, WorkMinutes.creditedCentiHours(LocalTime.of(8, 0), LocalTime.of(17, 0)));
+        // Log-out before log-in gives negative hours, rounded away from zero
+        assertEquals(-2, WorkMinutes.toCentiHours(-1));
+    }
+
+    @Test
+    void divideHalfUpRoundsTiesAwayFromZero() {
+        assertEquals(3, Centavos.divideHalfUp(5, 2));
+        assertEquals(-3, Centavos.divideHalfUp(-5, 2));
+        assertEquals(2, Centavos.divideHalfUp(7, 4));
+        assertEquals(0, Centavos.divideHalfUp(1, 3));
+    }
+
+    private static void assertCentavos(CSVRecord expected, String column, BigDecimal actual, String row) {
+        // The baseline is unrounded (the tax has up to 4 decimals); the result must be within half a centavo
+        BigDecimal expectedAmount = new BigDecimal(expected.get(column));
+        BigDecimal difference = expectedAmount.subtract(actual).abs();
+        assertTrue(difference.compareTo(HALF_CENTAVO) <= 0,
+                () -> row + " " + column + ": expected " + expectedAmount + " but was " + actual);
+    }
+
+    private static Map<String, Employee> loadEmployees() throws IOException {
+        Map<String, Employee> result = new HashMap<>();
+        for (CSVRecord record : parse("employees_details.csv")) {
+            Employee employee = new Employee();
+            employee.setEmployeeNumber(record.get("Employee #").trim());
+            employee.setLastName(record.get("Last Name").trim());
+            employee.setFirstName(record.get("First Name").trim());
+            // DECIMAL(38,2) columns, as the amounts come back from the database
+            employee.setBasicSalary(new BigDecimal(record.get("Basic Salary").replace(",", "").trim()).setScale(2));
+            employee.setHourlyRate(new BigDecimal(record.get("Hourly Rate").replace(",", "").trim()).setScale(2));
+            result.put(employee.getEmployeeNumber(), employee);
+        }
+        return result;
+    }
+
+    private static Map<String, DailyWorkSeries> loadDailySeries() throws IOException {
+        // One record per employee and day, sorted by date, as the attendance column store holds them
+        Map<String, TreeMap<LocalDate, LocalTime[]>> byEmployee = new HashMap<>();
+        for (CSVRecord record : parse("attendance_records.csv")) {
+            LocalTime[] times = { LocalTime.parse(record.get("LogIn").trim()),
+                    LocalTime.parse(record.get("LogOut").trim()) };
+            byEmployee.computeIfAbsent(record.get("EmployeeNumber").trim(), key -> new TreeMap<>())
+                    .put(LocalDate.parse(record.get("Date").trim(), DATE_FORMAT), times);
+        }
+        Map<String, DailyWorkSeries> result = new HashMap<>();
+        byEmployee.forEach((employeeNumber, days) -> {
+            int[] epochDays = new int[days.size()];
+            int[] logInSeconds = new int[days.size()];
+            int[] logOutSeconds = new int[days.size()];
+            int i = 0;
+            for (Map.Entry<LocalDate, LocalTime[]> day : days.entrySet()) {
+                epochDays[i] = (int) day.getKey().toEpochDay();
+                logInSeconds[i] = day.getValue()[0].toSecondOfDay();
+                logOutSeconds[i++] = day.getValue()[1].toSecondOfDay();
+            }
+            result.put(employeeNumber, new DailyWorkSeries(employeeNumber, epochDays, logInSeconds, logOutSeconds));
+        });
+        return result;
+    }
+
+    private static List<CSVRecord> parse(String resource) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                PayrollGoldenMasterTest.class.getClassLoader().getResourceAsStream(resource),
+                StandardCharsets.UTF_8)) {
+            return CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build().parse(reader)
+                    .getRecords();
+        }
+    }
+}
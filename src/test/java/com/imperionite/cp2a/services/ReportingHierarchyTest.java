@@ -0,0 +1,154 @@
+package com.imperionite.cp2a.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imperionite.cp2a.dtos.EmployeeOrgInfoDTO;
+import com.imperionite.cp2a.dtos.ReportingNodeDTO;
+import com.imperionite.cp2a.repositories.EmployeeRepository;
+
+/**
+ * Resolution of supervisor names and the subtree and chain lookups of the
+ * reporting hierarchy, built from a fixed list of employees instead of the
+ * database.
+ */
+class ReportingHierarchyTest {
+
+    // 10001 > (10002 > (10004 > 10007, 10005 > 10006), 10003)
+    private static final List<EmployeeOrgInfoDTO> COMPANY = List.of(
+            employee("10001", "Garcia", "Manuel", "N/A"),
+            employee("10002", "Lim", "Antonio", "Garcia, Manuel"),
+            employee("10003", "Aquino", "Bianca Sofia", "Garcia, Manuel"),
+            employee("10004", "Reyes", "Isabella", "Lim, Antonio"),
+            employee("10005", "San Jose", "Brad", "Lim, Antonio"),
+            employee("10006", "Romualdez", "Fredrick", "San, Jose Brad"),
+            employee("10007", "Villanueva", "Andrea Mae", "Reyes, Isabella"));
+
+    @Test
+    void resolvesSupervisorNamesRegardlessOfSpacingAndCommas() {
+        ReportingHierarchy hierarchy = hierarchy(COMPANY);
+
+        ReportingNodeDTO fredrick = node(hierarchy, "10006");
+        assertEquals("10005", fredrick.getSupervisorEmployeeNumber(), "'San, Jose Brad' is Brad San Jose");
+        assertEquals(3, fredrick.getLevel());
+        assertEquals(List.of("10005", "10002", "10001"), numbers(hierarchy.getManagementChain("10006").get()));
+        assertEquals(List.of("10002", "10003"), numbers(hierarchy.getDirectReports("10001").get()));
+
+        ReportingHierarchy.Snapshot snapshot = new ReportingHierarchy.Snapshot(COMPANY);
+        assertEquals(1, snapshot.roots);
+        assertEquals(0, snapshot.unresolved);
+    }
+
+    @Test
+    void leavesAnAmbiguousSupervisorNameUnresolved() {
+        List<EmployeeOrgInfoDTO> employees = List.of(
+                employee("10011", "Santos", "Maria", "N/A"),
+                employee("10012", "Santos", "Maria", "N/A"),
+                employee("10013", "Dizon", "Jose", "Santos, Maria"),
+                employee("10014", "Mata", "Eduard", "Nobody, Here"));
+        ReportingHierarchy hierarchy = hierarchy(employees);
+
+        ReportingNodeDTO jose = node(hierarchy, "10013");
+        assertNull(jose.getSupervisorEmployeeNumber());
+        assertEquals(0, jose.getLevel());
+        assertTrue(hierarchy.getManagementChain("10013").get().isEmpty());
+        assertTrue(hierarchy.getAllReports("10011").get().isEmpty());
+        assertTrue(hierarchy.getAllReports("10012").get().isEmpty());
+
+        ReportingHierarchy.Snapshot snapshot = new ReportingHierarchy.Snapshot(employees);
+        assertEquals(4, snapshot.roots);
+        assertEquals(2, snapshot.unresolved, "the ambiguous name and the name that matches no one");
+    }
+
+    @Test
+    void placesAnEmployeeWhoSupervisesThemselfAtTheTop() {
+        List<EmployeeOrgInfoDTO> employees = List.of(
+                employee("10021", "Cruz", "Juan", "Cruz, Juan"),
+                employee("10022", "Bautista", "Selena", "Cruz, Juan"));
+        ReportingHierarchy hierarchy = hierarchy(employees);
+
+        ReportingNodeDTO juan = node(hierarchy, "10021");
+        assertNull(juan.getSupervisorEmployeeNumber());
+        assertEquals(1, juan.getTotalReports());
+        assertTrue(hierarchy.getManagementChain("10021").get().isEmpty());
+        assertEquals(List.of("10021"), numbers(hierarchy.getManagementChain("10022").get()));
+        assertEquals(1, new ReportingHierarchy.Snapshot(employees).unresolved);
+    }
+
+    @Test
+    void cutsATwoPersonCycleAtOneOfItsMembers() {
+        List<EmployeeOrgInfoDTO> employees = List.of(
+                employee("10031", "Salcedo", "Anthony", "Farala, Christian"),
+                employee("10032", "Farala", "Christian", "Salcedo, Anthony"),
+                employee("10033", "Lopez", "Josie", "Salcedo, Anthony"));
+        ReportingHierarchy hierarchy = hierarchy(employees);
+
+        ReportingNodeDTO anthony = node(hierarchy, "10031");
+        ReportingNodeDTO christian = node(hierarchy, "10032");
+        ReportingNodeDTO top = anthony.getSupervisorEmployeeNumber() == null ? anthony : christian;
+        ReportingNodeDTO other = top == anthony ? christian : anthony;
+        assertNull(top.getSupervisorEmployeeNumber());
+        assertEquals(top.getEmployeeNumber(), other.getSupervisorEmployeeNumber());
+
+        // Everyone is still reachable, once, from the member where the cycle was cut
+        assertEquals(2, top.getTotalReports());
+        assertEquals(2, hierarchy.getAllReports(top.getEmployeeNumber()).get().size());
+        assertEquals(List.of("10031", "10032"), numbers(hierarchy.getManagementChain("10033").get())
+                .stream().sorted().toList());
+        assertEquals(1, new ReportingHierarchy.Snapshot(employees).roots);
+    }
+
+    @Test
+    void boundsSubtreesAndChainsToTheEmployeesRange() {
+        ReportingHierarchy hierarchy = hierarchy(COMPANY);
+
+        // Managers before their reports; the sibling numbered after the subtree is excluded
+        assertEquals(List.of("10004", "10007", "10005", "10006"),
+                numbers(hierarchy.getAllReports("10002").get()));
+        assertEquals(List.of("10002", "10004", "10007", "10005", "10006", "10003"),
+                numbers(hierarchy.getAllReports("10001").get()));
+        assertEquals(4, node(hierarchy, "10002").getTotalReports());
+
+        assertTrue(hierarchy.getAllReports("10007").get().isEmpty(), "a leaf has no reports");
+        assertTrue(hierarchy.getAllReports("10003").get().isEmpty(), "the last node has no reports");
+        assertTrue(hierarchy.getManagementChain("10001").get().isEmpty(), "the top has no chain");
+        assertEquals(List.of("10001"), numbers(hierarchy.getManagementChain("10003").get()));
+
+        assertTrue(hierarchy.getAllReports("99999").isEmpty());
+        assertTrue(hierarchy.getManagementChain("99999").isEmpty());
+        assertTrue(hierarchy.getDirectReports("99999").isEmpty());
+    }
+
+    private static ReportingHierarchy hierarchy(List<EmployeeOrgInfoDTO> employees) {
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        when(employeeRepository.findAllOrgInfo()).thenReturn(employees);
+        ReportingHierarchy hierarchy = new ReportingHierarchy();
+        ReflectionTestUtils.setField(hierarchy, "employeeRepository", employeeRepository);
+        return hierarchy;
+    }
+
+    // The employee's own node, from the snapshot the lookups use
+    private static ReportingNodeDTO node(ReportingHierarchy hierarchy, String employeeNumber) {
+        assertTrue(hierarchy.getManagementChain(employeeNumber).isPresent(), employeeNumber);
+        ReportingHierarchy.Snapshot snapshot = (ReportingHierarchy.Snapshot) ReflectionTestUtils.getField(hierarchy,
+                "snapshot");
+        return snapshot.toDTO(snapshot.nodes.get(employeeNumber));
+    }
+
+    private static List<String> numbers(List<ReportingNodeDTO> nodes) {
+        return nodes.stream().map(ReportingNodeDTO::getEmployeeNumber).toList();
+    }
+
+    private static EmployeeOrgInfoDTO employee(String employeeNumber, String lastName, String firstName,
+            String supervisor) {
+        return new EmployeeOrgInfoDTO(employeeNumber, lastName, firstName, "Rank and File", supervisor);
+    }
+}